@@ -0,0 +1,91 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.entities.*;
+import com.devsuperior.dscommerce.projections.UserDetailsProjection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detached entities shaped like the seed data, for benchmarks that exercise mapping
+ * code without a database.
+ */
+final class BenchmarkData {
+
+    private static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, "
+            + "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.";
+
+    private BenchmarkData() {
+    }
+
+    static Product product(long id, int categories) {
+        Product product = new Product(id, "Product " + id, DESCRIPTION, 90.5 + id,
+                "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/" + id + "-big.jpg");
+        for (long i = 1; i <= categories; i++) {
+            product.getCategories().add(new Category(i, "Category " + i));
+        }
+        return product;
+    }
+
+    static Order order(int items) {
+        User client = new User(1L, "Maria Brown", "maria@gmail.com", "988888888", LocalDate.of(2001, 7, 25), "");
+        Instant moment = Instant.parse("2022-07-25T13:00:00Z");
+        Order order = new Order(1L, moment, OrderStatus.PAID, client, null);
+        order.setPayment(new Payment(1L, moment.plusSeconds(3600), order));
+        for (int i = 1; i <= items; i++) {
+            order.getItems().add(new OrderItem(order, product(i, 2), 1 + i % 5, 90.5 + i));
+        }
+        return order;
+    }
+
+    static Page<Product> productPage(int size) {
+        List<Product> content = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            content.add(product(i, 2));
+        }
+        return new PageImpl<>(content, PageRequest.of(0, size), 1000);
+    }
+
+    static List<UserDetailsProjection> userDetails(String username, int roles) {
+        List<UserDetailsProjection> rows = new ArrayList<>(roles);
+        for (long i = 1; i <= roles; i++) {
+            rows.add(new UserDetailsRow(1L, username, "$2a$10$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG",
+                    i, i == 1 ? "ROLE_CLIENT" : "ROLE_" + i));
+        }
+        return rows;
+    }
+
+    record UserDetailsRow(Long userId, String username, String password, Long roleId, String authority)
+            implements UserDetailsProjection {
+
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public String getPassword() {
+            return password;
+        }
+
+        @Override
+        public Long getRoleId() {
+            return roleId;
+        }
+
+        @Override
+        public String getAuthority() {
+            return authority;
+        }
+    }
+}
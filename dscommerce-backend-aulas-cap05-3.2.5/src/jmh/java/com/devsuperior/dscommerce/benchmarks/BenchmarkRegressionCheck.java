@@ -0,0 +1,103 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result with a baseline recorded on the same machine and exits
+ * with status 1 when a benchmark got worse by more than the tolerance (a percentage)
+ * and its 99.9% confidence interval no longer overlaps the baseline's, so run-to-run
+ * noise within JMH's reported error does not fail the build.
+ * Throughput must not drop; time modes (avgt, sample, ss) must not rise. Benchmarks
+ * missing from either file are reported and skipped. Without a baseline file it only
+ * prints how to record one.
+ * <p>
+ * Usage: {@code BenchmarkRegressionCheck <result.json> <baseline.json> <tolerance>}
+ */
+public class BenchmarkRegressionCheck {
+
+    public static void main(String[] args) throws Exception {
+        File result = new File(args[0]);
+        File baseline = new File(args[1]);
+        double tolerance = Double.parseDouble(args[2]) / 100.0;
+
+        if (!baseline.isFile()) {
+            System.out.println("No benchmark baseline at " + baseline + "; to record one, copy " + result + " there.");
+            return;
+        }
+
+        Map<String, JsonNode> current = read(result);
+        Map<String, JsonNode> previous = read(baseline);
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = previous.get(entry.getKey());
+            if (before == null) {
+                System.out.println("NEW        " + entry.getKey());
+                continue;
+            }
+            JsonNode nowMetric = entry.getValue().path("primaryMetric");
+            JsonNode thenMetric = before.path("primaryMetric");
+            double now = nowMetric.path("score").asDouble();
+            double then = thenMetric.path("score").asDouble();
+            double[] nowInterval = confidence(nowMetric);
+            double[] thenInterval = confidence(thenMetric);
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double change = then == 0 ? 0 : (now - then) / then;
+            boolean beyondTolerance = higherIsBetter ? change < -tolerance : change > tolerance;
+            boolean separated = higherIsBetter ? nowInterval[1] < thenInterval[0] : nowInterval[0] > thenInterval[1];
+            boolean regressed = beyondTolerance && separated;
+            if (regressed) {
+                regressions++;
+            }
+            String unit = nowMetric.path("scoreUnit").asText();
+            System.out.printf("%-10s %s: %.3f +- %.3f -> %.3f +- %.3f %s (%+.1f%%)%s%n",
+                    regressed ? "REGRESSION" : "OK", entry.getKey(), then, error(thenMetric), now, error(nowMetric),
+                    unit, change * 100, beyondTolerance && !separated ? ", within error" : "");
+        }
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.println("NOT RUN    " + key);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%% and beyond their error against %s%n",
+                    regressions, tolerance * 100, baseline);
+            System.exit(1);
+        }
+    }
+
+    // JMH writes NaN when there were too few iterations to estimate the error; fall back to the score
+    private static double[] confidence(JsonNode metric) {
+        double low = metric.path("scoreConfidence").path(0).asDouble(Double.NaN);
+        double high = metric.path("scoreConfidence").path(1).asDouble(Double.NaN);
+        if (Double.isNaN(low) || Double.isNaN(high)) {
+            double score = metric.path("score").asDouble();
+            return new double[] {score, score};
+        }
+        return new double[] {low, high};
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(Double.NaN);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static Map<String, JsonNode> read(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText())
+                    .append(" [").append(run.path("mode").asText());
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(e -> params.put(e.getKey(), e.getValue().asText()));
+            params.forEach((name, value) -> key.append(", ").append(name).append('=').append(value));
+            results.put(key.append(']').toString(), run);
+        }
+        return results;
+    }
+}
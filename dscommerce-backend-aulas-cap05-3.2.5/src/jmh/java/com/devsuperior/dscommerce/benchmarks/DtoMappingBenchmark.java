@@ -0,0 +1,80 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping on the read paths: a product with its categories, an order
+ * with many items (each item copies its product), and a page of products.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class DtoMappingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ProductState {
+
+        @Param({"3"})
+        private int categories;
+
+        private Product product;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            product = BenchmarkData.product(1L, categories);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OrderState {
+
+        @Param({"10", "1000"})
+        private int items;
+
+        private Order order;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            order = BenchmarkData.order(items);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({"12", "200"})
+        private int pageSize;
+
+        private Page<Product> page;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            page = BenchmarkData.productPage(pageSize);
+        }
+    }
+
+    @Benchmark
+    public ProductDTO productDto(ProductState state) {
+        return new ProductDTO(state.product);
+    }
+
+    @Benchmark
+    public OrderDTO orderDto(OrderState state) {
+        return new OrderDTO(state.order);
+    }
+
+    @Benchmark
+    public Page<ProductMinDTO> productMinPage(PageState state) {
+        return state.page.map(x -> new ProductMinDTO(x));
+    }
+}
@@ -0,0 +1,76 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response DTOs, with an ObjectMapper built the way
+ * Spring Boot builds the one behind the message converters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ProductDTO product;
+
+    @State(Scope.Benchmark)
+    public static class OrderState {
+
+        @Param({"10", "1000"})
+        private int items;
+
+        private OrderDTO order;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            order = new OrderDTO(BenchmarkData.order(items));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({"12", "200"})
+        private int pageSize;
+
+        private Page<ProductMinDTO> page;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            page = BenchmarkData.productPage(pageSize).map(x -> new ProductMinDTO(x));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        product = new ProductDTO(BenchmarkData.product(1L, 3));
+    }
+
+    @Benchmark
+    public byte[] productDto() throws Exception {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] orderDto(OrderState state) throws Exception {
+        return objectMapper.writeValueAsBytes(state.order);
+    }
+
+    @Benchmark
+    public byte[] productMinPage(PageState state) throws Exception {
+        return objectMapper.writeValueAsBytes(state.page);
+    }
+}
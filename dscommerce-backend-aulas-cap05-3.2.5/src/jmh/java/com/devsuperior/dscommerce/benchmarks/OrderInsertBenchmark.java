@@ -0,0 +1,86 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.DscommerceApplication;
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.OrderService;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order insert throughput with JDBC batching off (batchSize=1) and on (batchSize=50).
+ * Both runs use the current mappings, pooled sequence ids and the cascade save
+ * of the items, so this compares JDBC batch sizes only; it does not reproduce
+ * the earlier IDENTITY ids and separate item saveAll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"5", "50"})
+    private int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderDTO order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // command-line args, not properties(): default properties lose to application.properties,
+        // which sets batch_size, so both batchSize params would have measured the same setting
+        context = new SpringApplicationBuilder(DscommerceApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        orderService = context.getBean(OrderService.class);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < itemsPerOrder; i++) {
+            products.add(new Product(null, "Benchmark product " + i, "Benchmark product", 10.0 + i, ""));
+        }
+        products = context.getBean(ProductRepository.class).saveAll(products);
+
+        order = new OrderDTO(null, null, null, null, null);
+        for (Product product : products) {
+            order.getItems().add(new OrderItemDTO(product.getId(), product.getName(), product.getPrice(), 1, ""));
+        }
+
+        Jwt jwt = Jwt.withTokenValue("benchmark")
+                .header("alg", "none")
+                .claim("username", "maria@gmail.com")
+                .claim(CustomUserUtil.USER_ID_CLAIM, 1L)
+                .build();
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO insertOrder() {
+        return orderService.insert(order);
+    }
+}
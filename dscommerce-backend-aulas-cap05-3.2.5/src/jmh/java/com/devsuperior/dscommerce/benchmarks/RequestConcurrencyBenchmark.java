@@ -0,0 +1,108 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.DscommerceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * GET /products and POST /orders over HTTP with Tomcat on platform threads and on
+ * virtual threads. Reports throughput and the latency distribution (SampleTime
+ * percentiles). The difference shows once client concurrency exceeds the platform
+ * pool, e.g. {@code -Djmh.args="-t 400"} against the default 200 threads, or
+ * {@code -Djmh.args="-p tomcatMaxThreads=20"} at the default 64 client threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class RequestConcurrencyBenchmark {
+
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"access_token\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"200"})
+    private int tomcatMaxThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest findProducts;
+    private HttpRequest insertOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(DscommerceApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + tomcatMaxThreads);
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newHttpClient();
+
+        findProducts = HttpRequest.newBuilder(URI.create(baseUrl + "/products?size=12")).GET().build();
+        insertOrder = HttpRequest.newBuilder(URI.create(baseUrl + "/orders"))
+                .header("Authorization", "Bearer " + accessToken(baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"items\":[{\"productId\":1,\"quantity\":2},{\"productId\":5,\"quantity\":1}]}"))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findProducts() throws Exception {
+        return send(findProducts, 200);
+    }
+
+    @Benchmark
+    public int insertOrder() throws Exception {
+        return send(insertOrder, 201);
+    }
+
+    private int send(HttpRequest request, int expectedStatus) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request.uri() + " failed: " + response.statusCode() + " " + response.body());
+        }
+        return response.body().length();
+    }
+
+    private String accessToken(String baseUrl) throws Exception {
+        String clientId = context.getEnvironment().getProperty("security.client-id");
+        String clientSecret = context.getEnvironment().getProperty("security.client-secret");
+        String credentials = Base64.getEncoder()
+                .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/oauth2/token"))
+                .header("Authorization", "Basic " + credentials)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username=maria@gmail.com&password=123456"))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = ACCESS_TOKEN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Token request failed: " + body);
+        }
+        return matcher.group(1);
+    }
+}
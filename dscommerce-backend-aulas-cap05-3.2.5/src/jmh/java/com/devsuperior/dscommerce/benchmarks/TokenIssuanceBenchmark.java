@@ -0,0 +1,77 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.DscommerceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password-grant token issuance throughput over HTTP, with the verified-password
+ * cache disabled (verifiedCacheTtl=0) and enabled, at the default and a stronger
+ * BCrypt work factor. The stronger factor re-hashes the seeded password on the
+ * first login, so every later check pays the higher cost unless it is cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class TokenIssuanceBenchmark {
+
+    @Param({"10", "12"})
+    private int bcryptStrength;
+
+    @Param({"0", "60"})
+    private int verifiedCacheTtl;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DscommerceApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--security.password.bcrypt-strength=" + bcryptStrength,
+                        "--security.password.verified-cache.ttl=" + verifiedCacheTtl);
+        String port = context.getEnvironment().getProperty("local.server.port");
+        String clientId = context.getEnvironment().getProperty("security.client-id");
+        String clientSecret = context.getEnvironment().getProperty("security.client-secret");
+        String credentials = Base64.getEncoder()
+                .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/oauth2/token"))
+                .header("Authorization", "Basic " + credentials)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username=maria@gmail.com&password=123456"))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int issueToken() throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Token request failed: " + response.statusCode() + " " + response.body());
+        }
+        return response.body().length();
+    }
+}
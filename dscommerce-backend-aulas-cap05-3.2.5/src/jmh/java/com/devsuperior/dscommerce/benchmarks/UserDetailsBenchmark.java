@@ -0,0 +1,51 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.projections.UserDetailsProjection;
+import com.devsuperior.dscommerce.repositories.UserRepository;
+import com.devsuperior.dscommerce.services.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Role assembly in {@code UserService.loadUserByUsername} from the projection rows,
+ * without the database and without the users cache in front of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class UserDetailsBenchmark {
+
+    private static final String USERNAME = "maria@gmail.com";
+
+    @Param({"1", "2"})
+    private int roles;
+
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<UserDetailsProjection> rows = BenchmarkData.userDetails(USERNAME, roles);
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[] {UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("searchUserAndRolesByEmail")) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "repository", repository);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userService.loadUserByUsername(USERNAME);
+    }
+}
@@ -0,0 +1,265 @@
+package com.devsuperior.dscommerce.loadtest;
+
+import com.devsuperior.dscommerce.services.perf.PerfDataGenerator;
+import com.devsuperior.dscommerce.services.perf.SkewedSampler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a running instance (normally started with the perf profile) through its real
+ * controllers with a weighted mix of catalog searches, product and order lookups,
+ * logins and checkouts, then prints throughput and p50/p90/p99 latency per endpoint.
+ * Each worker logs in as a generated client before it starts; order lookups use the
+ * seed admin. Latencies recorded during the warm-up are discarded.
+ * <p>
+ * Options ({@code name=value}, optionally prefixed with {@code --}): url, duration and warmup (seconds), concurrency,
+ * products, users and orders (the generated sizes), skew, and mix, e.g.
+ * {@code mix=search:30,product:30,categories:10,order:15,login:5,checkout:10}.
+ * The OAuth2 client is client-id and client-secret, by default taken from the
+ * CLIENT_ID and CLIENT_SECRET environment variables the server reads too.
+ */
+public class LoadTestRunner {
+
+    private static final String PASSWORD = "123456";
+    private static final String ADMIN = "alex@gmail.com";
+    private static final String[] SEARCH_TERMS = {"notebook", "smart tv", "gamer", "pro", "acme", "monitor", "livro",
+            "eletronico", "camera", "ultra 12", "nova slim", "xyz"};
+
+    private final Map<String, String> options;
+    private final String url;
+    private final String clientCredentials;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final SkewedSampler productSampler;
+    private final SkewedSampler userSampler;
+    private final long orders;
+    private final int totalWeight;
+    private volatile boolean recording;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("url", "http://localhost:8080");
+        options.put("duration", "60");
+        options.put("warmup", "10");
+        options.put("concurrency", "32");
+        options.put("products", "1000025");
+        options.put("users", "100002");
+        options.put("orders", "1000003");
+        options.put("skew", "1.0");
+        options.put("mix", "search:30,product:30,categories:10,order:15,login:5,checkout:10");
+        options.put("client-id", System.getenv().getOrDefault("CLIENT_ID", "myclientid"));
+        options.put("client-secret", System.getenv().getOrDefault("CLIENT_SECRET", "myclientsecret"));
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (!options.containsKey(pair[0]) || pair.length != 2) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(pair[0], pair[1]);
+        }
+        new LoadTestRunner(options).run();
+    }
+
+    LoadTestRunner(Map<String, String> options) {
+        this.options = options;
+        this.url = options.get("url");
+        this.clientCredentials = Base64.getEncoder().encodeToString(
+                (options.get("client-id") + ":" + options.get("client-secret")).getBytes(StandardCharsets.UTF_8));
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        double skew = Double.parseDouble(options.get("skew"));
+        this.productSampler = new SkewedSampler(Long.parseLong(options.get("products")), skew);
+        // the seed users are 1 and 2; generated clients are user<n>@perf.test from id 3 on
+        this.userSampler = new SkewedSampler(Math.max(1, Long.parseLong(options.get("users")) - 2), skew);
+        this.orders = Long.parseLong(options.get("orders"));
+        int weights = 0;
+        for (String entry : options.get("mix").split(",")) {
+            String[] pair = entry.split(":");
+            int weight = Integer.parseInt(pair[1]);
+            endpoints.put(pair[0], new Endpoint(pair[0], weight));
+            weights += weight;
+        }
+        this.totalWeight = weights;
+    }
+
+    void run() throws Exception {
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        long warmup = Long.parseLong(options.get("warmup"));
+        long duration = Long.parseLong(options.get("duration"));
+        String adminToken = login(ADMIN);
+        long end = System.nanoTime() + Duration.ofSeconds(warmup + duration).toNanos();
+
+        System.out.printf("Load test against %s: %d workers, %d s warm-up, %d s measured%n", url, concurrency, warmup, duration);
+        List<Future<Void>> results = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            SplittableRandom seeds = new SplittableRandom(42);
+            for (int i = 0; i < concurrency; i++) {
+                SplittableRandom random = seeds.split();
+                results.add(workers.submit(() -> work(random, adminToken, end)));
+            }
+            Thread.sleep(Duration.ofSeconds(warmup));
+            recording = true;
+        }
+        for (Future<Void> result : results) {
+            // surfaces a worker that could not log in
+            result.get();
+        }
+        report(duration);
+    }
+
+    private Void work(SplittableRandom random, String adminToken, long end) throws Exception {
+        String clientToken = login(randomUser(random));
+        while (System.nanoTime() < end) {
+            Endpoint endpoint = pick(random);
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = switch (endpoint.name) {
+                    case "search" -> send(get("/products?size=12&page=" + random.nextInt(5) + "&name="
+                            + URLEncoder.encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)], StandardCharsets.UTF_8)));
+                    case "product" -> send(get("/products/" + (1 + productSampler.next(random))));
+                    case "categories" -> send(get("/categories"));
+                    case "order" -> send(get("/orders/" + (1 + random.nextLong(orders)), adminToken));
+                    case "login" -> tokenRequest(randomUser(random)).statusCode() == 200;
+                    case "checkout" -> send(checkout(random, clientToken));
+                    default -> throw new IllegalArgumentException("Unknown endpoint " + endpoint.name);
+                };
+            } catch (Exception ex) {
+                ok = false;
+            }
+            endpoint.record(System.nanoTime() - start, ok, recording);
+        }
+        return null;
+    }
+
+    private void report(long seconds) {
+        System.out.printf("%n%-12s %10s %8s %10s %10s %10s %10s %10s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "max ms");
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            print(endpoint.name, endpoint.latencies, endpoint.errors.sum(), seconds);
+            total.add(endpoint.latencies);
+            totalErrors += endpoint.errors.sum();
+        }
+        print("total", total, totalErrors, seconds);
+    }
+
+    private static void print(String name, Histogram latencies, long errors, long seconds) {
+        long count = latencies.getTotalCount();
+        System.out.printf("%-12s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", name, count, errors,
+                (double) count / seconds, millis(latencies, 50), millis(latencies, 90), millis(latencies, 99),
+                latencies.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private Endpoint pick(SplittableRandom random) {
+        int value = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints.values()) {
+            value -= endpoint.weight;
+            if (value < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private String randomUser(SplittableRandom random) {
+        return PerfDataGenerator.email(1 + userSampler.next(random));
+    }
+
+    private HttpRequest checkout(SplittableRandom random, String token) throws Exception {
+        Set<Long> productIds = new HashSet<>();
+        int items = 1 + random.nextInt(3);
+        while (productIds.size() < items) {
+            productIds.add(1 + productSampler.next(random));
+        }
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Long productId : productIds) {
+            list.add(Map.of("productId", productId, "quantity", 1 + random.nextInt(3)));
+        }
+        return HttpRequest.newBuilder(URI.create(url + "/orders"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("items", list))))
+                .build();
+    }
+
+    private String login(String username) throws Exception {
+        HttpResponse<String> response = tokenRequest(username);
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login as " + username + " failed: " + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("access_token").asText();
+    }
+
+    private HttpResponse<String> tokenRequest(String username) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/oauth2/token"))
+                .header("Authorization", "Basic " + clientCredentials)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username="
+                        + URLEncoder.encode(username, StandardCharsets.UTF_8) + "&password=" + PASSWORD))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(url + path)).GET().build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(url + path)).header("Authorization", "Bearer " + token).GET().build();
+    }
+
+    private boolean send(HttpRequest request) throws Exception {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        return status >= 200 && status < 300;
+    }
+
+    private static class Endpoint {
+
+        private final String name;
+        private final int weight;
+        // microseconds
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+
+        Endpoint(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        void record(long nanos, boolean ok, boolean recording) {
+            if (!recording) {
+                return;
+            }
+            latencies.recordValue(nanos / 1000);
+            if (!ok) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.devsuperior.dscommerce.config;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Runs {@code @Async} methods on Boot's application task executor: virtual threads
+ * when {@code spring.threads.virtual.enabled} is set, otherwise the bounded pool
+ * configured by {@code spring.task.execution.pool.*}. Tasks inherit the caller's MDC,
+ * so their log lines keep the request's correlation id.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+	@Bean
+	public TaskDecorator mdcTaskDecorator() {
+		return task -> {
+			Map<String, String> context = MDC.getCopyOfContextMap();
+			return () -> {
+				Map<String, String> previous = MDC.getCopyOfContextMap();
+				if (context != null) {
+					MDC.setContextMap(context);
+				}
+				try {
+					task.run();
+				} finally {
+					if (previous != null) {
+						MDC.setContextMap(previous);
+					} else {
+						MDC.clear();
+					}
+				}
+			};
+		};
+	}
+}
@@ -1,9 +1,6 @@
 package com.devsuperior.dscommerce.config;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
@@ -15,17 +12,16 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
@@ -47,11 +43,12 @@ import org.springframework.security.web.SecurityFilterChain;
 import com.devsuperior.dscommerce.config.customgrant.CustomPasswordAuthenticationConverter;
 import com.devsuperior.dscommerce.config.customgrant.CustomPasswordAuthenticationProvider;
 import com.devsuperior.dscommerce.config.customgrant.CustomUserAuthorities;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class AuthorizationServerConfig {
 
@@ -64,20 +61,58 @@ public class AuthorizationServerConfig {
 	@Value("${security.jwt.duration}")
 	private Integer jwtDurationSeconds;
 
+	@Value("${security.jwt.key-store}")
+	private String jwtKeyStore;
+
+	@Value("${security.jwt.key-algorithm}")
+	private String jwtKeyAlgorithm;
+
+	@Value("${security.jwt.key-rotation}")
+	private Integer jwtKeyRotationDays;
+
+	@Value("${security.jwt.retired-keys}")
+	private Integer jwtRetiredKeys;
+
+	@Value("${security.authorization-store.max-size}")
+	private Integer authorizationStoreMaxSize;
+
+	@Value("${security.authorization-store.stripes}")
+	private Integer authorizationStoreStripes;
+
+	@Value("${security.password.bcrypt-strength}")
+	private Integer bcryptStrength;
+
+	@Value("${security.password.verified-cache.max-size}")
+	private Integer verifiedPasswordCacheMaxSize;
+
+	@Value("${security.password.verified-cache.ttl}")
+	private Integer verifiedPasswordCacheTtlSeconds;
+
 	@Autowired
 	private UserDetailsService userDetailsService;
 
+	@Autowired
+	private UserDetailsPasswordService userDetailsPasswordService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@Bean
 	@Order(2)
 	public SecurityFilterChain asSecurityFilterChain(HttpSecurity http) throws Exception {
 
 		OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
 
+		CustomPasswordAuthenticationProvider passwordAuthenticationProvider = new CustomPasswordAuthenticationProvider(
+				authorizationService(), tokenGenerator(), userDetailsService, passwordEncoder());
+		passwordAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+		passwordAuthenticationProvider.setMeterRegistry(meterRegistry);
+
 		// @formatter:off
 		http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
 			.tokenEndpoint(tokenEndpoint -> tokenEndpoint
 				.accessTokenRequestConverter(new CustomPasswordAuthenticationConverter())
-				.authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService(), tokenGenerator(), userDetailsService, passwordEncoder())));
+				.authenticationProvider(passwordAuthenticationProvider));
 
 		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
 		// @formatter:on
@@ -86,8 +121,9 @@ public class AuthorizationServerConfig {
 	}
 
 	@Bean
-	public OAuth2AuthorizationService authorizationService() {
-		return new InMemoryOAuth2AuthorizationService();
+	public BoundedOAuth2AuthorizationService authorizationService() {
+		return new BoundedOAuth2AuthorizationService(authorizationStoreMaxSize, authorizationStoreStripes,
+				Duration.ofSeconds(jwtDurationSeconds));
 	}
 
 	@Bean
@@ -96,8 +132,9 @@ public class AuthorizationServerConfig {
 	}
 
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public CachingPasswordEncoder passwordEncoder() {
+		return new CachingPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), verifiedPasswordCacheMaxSize,
+				Duration.ofSeconds(verifiedPasswordCacheTtlSeconds));
 	}
 
 	@Bean
@@ -140,7 +177,7 @@ public class AuthorizationServerConfig {
 
 	@Bean
 	public OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator() {
-		NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkSource());
+		NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkKeyStore().signingKeySource());
 		JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
 		jwtGenerator.setJwtCustomizer(tokenCustomizer());
 		OAuth2AccessTokenGenerator accessTokenGenerator = new OAuth2AccessTokenGenerator();
@@ -153,12 +190,16 @@ public class AuthorizationServerConfig {
 			OAuth2ClientAuthenticationToken principal = context.getPrincipal();
 			CustomUserAuthorities user = (CustomUserAuthorities) principal.getDetails();
 			List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority()).toList();
+			context.getJwsHeader().algorithm(jwkKeyStore().getAlgorithm()).keyId(jwkKeyStore().currentSigningKey().getKeyID());
 			if (context.getTokenType().getValue().equals("access_token")) {
 				// @formatter:off
 				context.getClaims()
 					.claim("authorities", authorities)
 					.claim("username", user.getUsername());
 				// @formatter:on
+				if (user.getUserId() != null) {
+					context.getClaims().claim(CustomUserUtil.USER_ID_CLAIM, user.getUserId());
+				}
 			}
 		};
 	}
@@ -169,28 +210,13 @@ public class AuthorizationServerConfig {
 	}
 
 	@Bean
-	public JWKSource<SecurityContext> jwkSource() {
-		RSAKey rsaKey = generateRsa();
-		JWKSet jwkSet = new JWKSet(rsaKey);
-		return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
-	}
-
-	private static RSAKey generateRsa() {
-		KeyPair keyPair = generateRsaKey();
-		RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-		RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-		return new RSAKey.Builder(publicKey).privateKey(privateKey).keyID(UUID.randomUUID().toString()).build();
+	public JwkKeyStore jwkKeyStore() {
+		return new JwkKeyStore(Path.of(jwtKeyStore), SignatureAlgorithm.from(jwtKeyAlgorithm),
+				Duration.ofDays(jwtKeyRotationDays), jwtRetiredKeys);
 	}
 
-	private static KeyPair generateRsaKey() {
-		KeyPair keyPair;
-		try {
-			KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-			keyPairGenerator.initialize(2048);
-			keyPair = keyPairGenerator.generateKeyPair();
-		} catch (Exception ex) {
-			throw new IllegalStateException(ex);
-		}
-		return keyPair;
+	@Bean
+	public JWKSource<SecurityContext> jwkSource() {
+		return jwkKeyStore().verificationKeySource();
 	}
 }
@@ -0,0 +1,263 @@
+package com.devsuperior.dscommerce.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * In-memory {@link OAuth2AuthorizationService} with a size bound and a time to live.
+ * Entries are spread over lock stripes; each stripe keeps insertion order, so expired
+ * entries are purged from its head and the oldest entry is evicted when it is full.
+ */
+public class BoundedOAuth2AuthorizationService implements OAuth2AuthorizationService, MeterBinder {
+
+	private final Stripe[] stripes;
+	private final int maxEntriesPerStripe;
+	private final Duration timeToLive;
+	private final Clock clock;
+	private final Map<String, String> idsByToken = new ConcurrentHashMap<>();
+	private final AtomicLong sizeEvictions = new AtomicLong();
+	private final AtomicLong expiredEvictions = new AtomicLong();
+
+	public BoundedOAuth2AuthorizationService(int maxSize, int stripeCount, Duration timeToLive) {
+		this(maxSize, stripeCount, timeToLive, Clock.systemUTC());
+	}
+
+	BoundedOAuth2AuthorizationService(int maxSize, int stripeCount, Duration timeToLive, Clock clock) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than zero");
+		Assert.isTrue(stripeCount > 0, "stripeCount must be greater than zero");
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		this.stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe();
+		}
+		this.maxEntriesPerStripe = Math.max(1, (maxSize + stripeCount - 1) / stripeCount);
+		this.timeToLive = timeToLive;
+		this.clock = clock;
+	}
+
+	@Override
+	public void save(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		Stripe stripe = stripeFor(authorization.getId());
+		Instant now = clock.instant();
+		stripe.lock.lock();
+		try {
+			purgeExpired(stripe, now);
+			Entry previous = stripe.entries.remove(authorization.getId());
+			if (previous != null) {
+				unindex(previous.authorization);
+			}
+			stripe.entries.put(authorization.getId(), new Entry(authorization, expiresAt(authorization, now)));
+			index(authorization);
+			Iterator<Entry> it = stripe.entries.values().iterator();
+			while (stripe.entries.size() > maxEntriesPerStripe && it.hasNext()) {
+				unindex(it.next().authorization);
+				it.remove();
+				sizeEvictions.incrementAndGet();
+			}
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	@Override
+	public void remove(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		Stripe stripe = stripeFor(authorization.getId());
+		stripe.lock.lock();
+		try {
+			Entry entry = stripe.entries.remove(authorization.getId());
+			if (entry != null) {
+				unindex(entry.authorization);
+			}
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	@Override
+	public OAuth2Authorization findById(String id) {
+		Assert.hasText(id, "id cannot be empty");
+		Stripe stripe = stripeFor(id);
+		stripe.lock.lock();
+		try {
+			Entry entry = stripe.entries.get(id);
+			if (entry == null) {
+				return null;
+			}
+			if (!entry.expiresAt.isAfter(clock.instant())) {
+				stripe.entries.remove(id);
+				unindex(entry.authorization);
+				expiredEvictions.incrementAndGet();
+				return null;
+			}
+			return entry.authorization;
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	@Override
+	public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+		Assert.hasText(token, "token cannot be empty");
+		String id = idsByToken.get(token);
+		if (id == null) {
+			return null;
+		}
+		OAuth2Authorization authorization = findById(id);
+		return authorization != null && hasToken(authorization, token, tokenType) ? authorization : null;
+	}
+
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				size += stripe.entries.size();
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	public long getEvictionCount() {
+		return sizeEvictions.get() + expiredEvictions.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("oauth2.authorizations.size", this, BoundedOAuth2AuthorizationService::size)
+				.description("OAuth2 authorizations currently held in memory")
+				.register(registry);
+		FunctionCounter.builder("oauth2.authorizations.evictions", sizeEvictions, AtomicLong::get)
+				.description("OAuth2 authorizations evicted from memory")
+				.tag("cause", "size")
+				.register(registry);
+		FunctionCounter.builder("oauth2.authorizations.evictions", expiredEvictions, AtomicLong::get)
+				.description("OAuth2 authorizations evicted from memory")
+				.tag("cause", "expired")
+				.register(registry);
+	}
+
+	private Stripe stripeFor(String id) {
+		int hash = id.hashCode();
+		return stripes[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % stripes.length];
+	}
+
+	private void purgeExpired(Stripe stripe, Instant now) {
+		Iterator<Entry> it = stripe.entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (entry.expiresAt.isAfter(now)) {
+				return;
+			}
+			unindex(entry.authorization);
+			it.remove();
+			expiredEvictions.incrementAndGet();
+		}
+	}
+
+	private Instant expiresAt(OAuth2Authorization authorization, Instant now) {
+		Instant expiresAt = now.plus(timeToLive);
+		OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+		if (accessToken != null && accessToken.getToken().getExpiresAt() != null
+				&& accessToken.getToken().getExpiresAt().isBefore(expiresAt)) {
+			return accessToken.getToken().getExpiresAt();
+		}
+		return expiresAt;
+	}
+
+	private void index(OAuth2Authorization authorization) {
+		for (String token : tokenValues(authorization)) {
+			idsByToken.put(token, authorization.getId());
+		}
+	}
+
+	private void unindex(OAuth2Authorization authorization) {
+		for (String token : tokenValues(authorization)) {
+			idsByToken.remove(token, authorization.getId());
+		}
+	}
+
+	private static List<String> tokenValues(OAuth2Authorization authorization) {
+		List<String> values = new ArrayList<>();
+		String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+		if (state != null) {
+			values.add(state);
+		}
+		for (Class<? extends OAuth2Token> type : List.of(OAuth2AuthorizationCode.class, OAuth2AccessToken.class,
+				OAuth2RefreshToken.class, OidcIdToken.class)) {
+			OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(type);
+			if (token != null) {
+				values.add(token.getToken().getTokenValue());
+			}
+		}
+		return values;
+	}
+
+	private static boolean hasToken(OAuth2Authorization authorization, String token, OAuth2TokenType tokenType) {
+		if (tokenType == null) {
+			return true;
+		}
+		if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+			return token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE));
+		}
+		Class<? extends OAuth2Token> type = switch (tokenType.getValue()) {
+			case OAuth2ParameterNames.CODE -> OAuth2AuthorizationCode.class;
+			case OAuth2ParameterNames.ACCESS_TOKEN -> OAuth2AccessToken.class;
+			case OAuth2ParameterNames.REFRESH_TOKEN -> OAuth2RefreshToken.class;
+			case "id_token" -> OidcIdToken.class;
+			default -> null;
+		};
+		if (type == null) {
+			return false;
+		}
+		OAuth2Authorization.Token<? extends OAuth2Token> stored = authorization.getToken(type);
+		return stored != null && stored.getToken().getTokenValue().equals(token);
+	}
+
+	private static final class Stripe {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+	}
+
+	private static final class Entry {
+		private final OAuth2Authorization authorization;
+		private final Instant expiresAt;
+
+		private Entry(OAuth2Authorization authorization, Instant expiresAt) {
+			this.authorization = authorization;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
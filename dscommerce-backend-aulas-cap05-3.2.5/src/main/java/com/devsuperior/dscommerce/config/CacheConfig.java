@@ -0,0 +1,50 @@
+package com.devsuperior.dscommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching(proxyTargetClass = true)
+public class CacheConfig {
+
+	public static final String USERS = "users";
+
+	@Value("${cache.default.max-size}")
+	private Long defaultCacheMaxSize;
+
+	@Value("${cache.default.ttl}")
+	private Long defaultCacheTtlSeconds;
+
+	@Value("${security.user-cache.max-size}")
+	private Long userCacheMaxSize;
+
+	@Value("${security.user-cache.ttl}")
+	private Long userCacheTtlSeconds;
+
+	@Bean
+	public CacheManager cacheManager() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+		// @formatter:off
+		// caches created on first use by a new cacheNames; recordStats feeds the
+		// cache.gets{result=hit|miss} metrics bound by actuator
+		cacheManager.setCaffeine(Caffeine.newBuilder()
+				.maximumSize(defaultCacheMaxSize)
+				.expireAfterWrite(Duration.ofSeconds(defaultCacheTtlSeconds))
+				.recordStats());
+		cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+				.maximumSize(userCacheMaxSize)
+				.expireAfterWrite(Duration.ofSeconds(userCacheTtlSeconds))
+				.recordStats()
+				.build());
+		// @formatter:on
+		return cacheManager;
+	}
+}
@@ -0,0 +1,161 @@
+package com.devsuperior.dscommerce.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.util.Assert;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers the {@link JwtAuthenticationToken} built for a bearer token until the JWT
+ * expires, so a token that is sent again skips signature verification and authority
+ * conversion. Entries are keyed by a SHA-256 of the token, never by the token itself.
+ * Records how long verification takes on a miss and, from that average, roughly how
+ * much time the hits saved.
+ * <p>
+ * Cache expiry, token expiry and verification timing all read one {@link Clock}, which
+ * Caffeine sees as nanoseconds since the epoch.
+ */
+public class CachingJwtAuthenticationManager implements AuthenticationManager, MeterBinder {
+
+	private final AuthenticationManager delegate;
+	private final Cache<String, JwtAuthenticationToken> authentications;
+	private final Ticker ticker;
+	private final LongAdder verifications = new LongAdder();
+	private final LongAdder verificationNanos = new LongAdder();
+	private final LongAdder savedNanos = new LongAdder();
+
+	public CachingJwtAuthenticationManager(AuthenticationManager delegate, int maxSize, Duration maxTimeToLive) {
+		this(delegate, maxSize, maxTimeToLive, Clock.systemUTC());
+	}
+
+	CachingJwtAuthenticationManager(AuthenticationManager delegate, int maxSize, Duration maxTimeToLive, Clock clock) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		Assert.isTrue(maxSize >= 0, "maxSize cannot be negative");
+		Assert.notNull(maxTimeToLive, "maxTimeToLive cannot be null");
+		Assert.notNull(clock, "clock cannot be null");
+		this.delegate = delegate;
+		this.ticker = () -> epochNanos(clock.instant());
+		// @formatter:off
+		this.authentications = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfter(new UntilTokenExpires(maxTimeToLive))
+				.ticker(ticker)
+				.recordStats()
+				.build();
+		// @formatter:on
+	}
+
+	@Override
+	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+		if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+			return delegate.authenticate(authentication);
+		}
+		String key = hash(bearer.getToken());
+		JwtAuthenticationToken cached = authentications.getIfPresent(key);
+		if (cached != null) {
+			long count = verifications.sum();
+			if (count > 0) {
+				savedNanos.add(verificationNanos.sum() / count);
+			}
+			return copyWithDetails(cached, bearer.getDetails());
+		}
+		long start = ticker.read();
+		Authentication result = delegate.authenticate(authentication);
+		// a wall clock can step back
+		verificationNanos.add(Math.max(0, ticker.read() - start));
+		verifications.increment();
+		if (result instanceof JwtAuthenticationToken jwtAuthentication) {
+			authentications.put(key, jwtAuthentication);
+		}
+		return result;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, authentications, "jwt.authentications");
+		FunctionCounter.builder("jwt.verification.count", verifications, LongAdder::sum)
+				.description("Bearer tokens whose signature was verified and converted")
+				.register(registry);
+		FunctionCounter.builder("jwt.verification.time", verificationNanos, x -> x.sum() / 1e9)
+				.description("Time spent verifying and converting bearer tokens")
+				.baseUnit("seconds")
+				.register(registry);
+		FunctionCounter.builder("jwt.verification.saved", savedNanos, x -> x.sum() / 1e9)
+				.description("Estimated verification time skipped by cache hits")
+				.baseUnit("seconds")
+				.register(registry);
+	}
+
+	private static JwtAuthenticationToken copyWithDetails(JwtAuthenticationToken cached, Object details) {
+		JwtAuthenticationToken copy = new JwtAuthenticationToken(cached.getToken(), cached.getAuthorities(),
+				cached.getName());
+		copy.setDetails(details);
+		return copy;
+	}
+
+	private static String hash(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static long epochNanos(Instant instant) {
+		return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+	}
+
+	private static class UntilTokenExpires implements Expiry<String, JwtAuthenticationToken> {
+
+		private final Duration maxTimeToLive;
+
+		UntilTokenExpires(Duration maxTimeToLive) {
+			this.maxTimeToLive = maxTimeToLive;
+		}
+
+		@Override
+		public long expireAfterCreate(String key, JwtAuthenticationToken value, long currentTime) {
+			Instant expiresAt = value.getToken().getExpiresAt();
+			// currentTime comes from the ticker, so it is the same clock as the rest of the class
+			Duration remaining = expiresAt == null ? maxTimeToLive
+					: Duration.between(Instant.ofEpochSecond(0, currentTime), expiresAt);
+			if (remaining.isNegative()) {
+				return 0;
+			}
+			return remaining.compareTo(maxTimeToLive) < 0 ? remaining.toNanos() : maxTimeToLive.toNanos();
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, JwtAuthenticationToken value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+
+		@Override
+		public long expireAfterRead(String key, JwtAuthenticationToken value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.devsuperior.dscommerce.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.Assert;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * {@link PasswordEncoder} that remembers successful {@link #matches} results for a short
+ * time, so repeated logins (and client secret checks on every token request) skip the
+ * slow delegate. Entries are keyed by an HMAC of the stored hash and the raw password
+ * under a key generated per process: no raw password is kept, and the keys cannot be
+ * brute-forced offline without that key. Failed matches are never cached.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+	private final PasswordEncoder delegate;
+	private final Cache<String, Boolean> verified;
+	private final SecretKeySpec key;
+
+	public CachingPasswordEncoder(PasswordEncoder delegate, int maxSize, Duration timeToLive) {
+		this(delegate, maxSize, timeToLive, Ticker.systemTicker());
+	}
+
+	CachingPasswordEncoder(PasswordEncoder delegate, int maxSize, Duration timeToLive, Ticker ticker) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		Assert.isTrue(maxSize >= 0, "maxSize cannot be negative");
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		this.delegate = delegate;
+		// @formatter:off
+		this.verified = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(timeToLive)
+				.ticker(ticker)
+				.recordStats()
+				.build();
+		// @formatter:on
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return delegate.encode(rawPassword);
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		if (rawPassword == null || encodedPassword == null) {
+			return delegate.matches(rawPassword, encodedPassword);
+		}
+		String cacheKey = cacheKey(rawPassword, encodedPassword);
+		if (verified.getIfPresent(cacheKey) != null) {
+			return true;
+		}
+		boolean matches = delegate.matches(rawPassword, encodedPassword);
+		if (matches) {
+			verified.put(cacheKey, Boolean.TRUE);
+		}
+		return matches;
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, verified, "passwords.verified");
+	}
+
+	private String cacheKey(CharSequence rawPassword, String encodedPassword) {
+		try {
+			Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(key);
+			mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+			mac.update((byte) 0);
+			mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(mac.doFinal());
+		} catch (GeneralSecurityException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.devsuperior.dscommerce.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Opens the pool's {@code minimum-idle} connections before the web server starts, so the
+ * first requests after a deploy do not pay for connection setup (TCP, TLS, authentication)
+ * while holding a request thread. Pool sizing, leak detection and the
+ * {@code hikaricp.connections.*} metrics are configured through
+ * {@code spring.datasource.hikari.*} and {@code management.metrics.*}.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ConnectionPoolConfig.class);
+
+	@Bean
+	@ConditionalOnProperty(name = "datasource.pool.warm-up", havingValue = "true")
+	public SmartInitializingSingleton connectionPoolWarmUp(ObjectProvider<DataSource> dataSources) {
+		return () -> {
+			// the primary and, when routing is enabled, the replica pool; each only once
+			Set<HikariDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (DataSource dataSource : dataSources) {
+				HikariDataSource pool = pool(dataSource);
+				if (pool != null && pools.add(pool)) {
+					long start = System.nanoTime();
+					try {
+						int connections = warmUp(pool);
+						LOG.info("Connection pool {} warmed up with {} connections in {} ms", pool.getPoolName(),
+								connections, (System.nanoTime() - start) / 1_000_000);
+					} catch (SQLException e) {
+						// the pool keeps filling in the background; requests just may wait for it
+						LOG.warn("Connection pool {} warm-up failed: {}", pool.getPoolName(), e.getMessage());
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Borrows {@code minimum-idle} connections at once, which makes Hikari create them,
+	 * checks each one and gives them all back.
+	 */
+	static int warmUp(DataSource dataSource) throws SQLException {
+		HikariDataSource pool = pool(dataSource);
+		if (pool == null) {
+			return 0;
+		}
+		List<Connection> connections = new ArrayList<>();
+		try {
+			for (int i = 0; i < pool.getMinimumIdle(); i++) {
+				Connection connection = pool.getConnection();
+				connections.add(connection);
+				connection.isValid((int) Math.max(1, pool.getValidationTimeout() / 1000));
+			}
+		} finally {
+			for (Connection connection : connections) {
+				connection.close();
+			}
+		}
+		return connections.size();
+	}
+
+	private static HikariDataSource pool(DataSource dataSource) {
+		try {
+			return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+}
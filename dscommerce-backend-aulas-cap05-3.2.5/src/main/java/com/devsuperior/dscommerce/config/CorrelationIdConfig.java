@@ -0,0 +1,22 @@
+package com.devsuperior.dscommerce.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers {@link CorrelationIdFilter} ahead of every other filter, security included,
+ * so log lines written by those filters carry the correlation id too.
+ */
+@Configuration
+public class CorrelationIdConfig {
+
+	@Bean
+	public FilterRegistrationBean<CorrelationIdFilter> correlationIdFilter() {
+		FilterRegistrationBean<CorrelationIdFilter> registration = new FilterRegistrationBean<>(
+				new CorrelationIdFilter());
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+}
@@ -0,0 +1,44 @@
+package com.devsuperior.dscommerce.config;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Puts a correlation id in the MDC for the whole request, so every log line written
+ * while serving it (and by {@code @Async} work it starts) can be grouped. The caller's
+ * {@value #HEADER} is reused when it looks like an id, otherwise a new one is made;
+ * either way it is echoed in the response.
+ */
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+	public static final String HEADER = "X-Correlation-Id";
+	public static final String MDC_KEY = "correlationId";
+
+	private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String correlationId = request.getHeader(HEADER);
+		if (correlationId == null || !VALID_ID.matcher(correlationId).matches()) {
+			correlationId = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+		}
+		response.setHeader(HEADER, correlationId);
+		MDC.put(MDC_KEY, correlationId);
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			MDC.remove(MDC_KEY);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.devsuperior.dscommerce.config;
+
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.devsuperior.dscommerce.entities.HibernateCacheRegions;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Sized Caffeine regions for the Hibernate second-level and query caches. Without this
+ * configuration (e.g. in {@code @DataJpaTest}) Hibernate creates unbounded regions.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+	@Value("${entity-cache.category.max-size}")
+	private Long categoryMaxSize;
+
+	@Value("${entity-cache.product.max-size}")
+	private Long productMaxSize;
+
+	@Value("${entity-cache.query.max-size}")
+	private Long queryMaxSize;
+
+	@Value("${entity-cache.ttl}")
+	private Long ttlSeconds;
+
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager() {
+		// one manager per context, so contexts sharing a JVM (tests, benchmarks) do not share regions
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+				.getCacheManager(URI.create("dscommerce-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+		cacheManager.createCache(HibernateCacheRegions.CATEGORY, region(categoryMaxSize, ttlSeconds));
+		cacheManager.createCache(HibernateCacheRegions.PRODUCT, region(productMaxSize, ttlSeconds));
+		cacheManager.createCache(HibernateCacheRegions.PRODUCT_CATEGORIES, region(productMaxSize, ttlSeconds));
+		cacheManager.createCache(HibernateCacheRegions.QUERY_RESULTS, region(queryMaxSize, ttlSeconds));
+		// timestamps decide whether cached query results are stale, so they must never be evicted early
+		cacheManager.createCache(HibernateCacheRegions.UPDATE_TIMESTAMPS, new CaffeineConfiguration<>());
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+
+	private static CaffeineConfiguration<Object, Object> region(long maxSize, long ttlSeconds) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setMaximumSize(OptionalLong.of(maxSize));
+		configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+		configuration.setStatisticsEnabled(true);
+		return configuration;
+	}
+}
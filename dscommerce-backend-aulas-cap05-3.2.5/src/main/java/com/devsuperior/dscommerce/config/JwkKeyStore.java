@@ -0,0 +1,270 @@
+package com.devsuperior.dscommerce.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.util.Assert;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+/**
+ * JWT signing keys kept in a JWK set file, so tokens stay valid across restarts and
+ * every node sharing the file can verify the others' tokens. The newest key signs; up
+ * to {@code retiredKeys} older keys are kept so tokens they signed still verify. A new
+ * key is generated when the signing key is older than {@code rotation}. On an unknown
+ * {@code kid} the file is re-read (at most once per {@link #RELOAD_INTERVAL}) to pick up
+ * keys another node has rotated in. Rotation holds a lock on {@code <file>.lock} and
+ * merges the keys already in the file, so nodes rotating at the same time keep each
+ * other's keys and the later one adopts the key the earlier one generated.
+ */
+public class JwkKeyStore {
+
+	static final Duration RELOAD_INTERVAL = Duration.ofSeconds(30);
+
+	// a FileLock is held per JVM, so stores on the same file in one JVM also share a lock
+	private static final ConcurrentMap<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+	private final Path file;
+	private final SignatureAlgorithm algorithm;
+	private final Duration rotation;
+	private final int retiredKeys;
+	private final Clock clock;
+	// held while waiting for another node's file lock, which can take a while; unlike
+	// synchronized, it does not pin a virtual thread for that time
+	private final ReentrantLock lock;
+	private volatile JWKSet keys;
+	private volatile Instant lastReload = Instant.MIN;
+
+	public JwkKeyStore(Path file, SignatureAlgorithm algorithm, Duration rotation, int retiredKeys) {
+		this(file, algorithm, rotation, retiredKeys, Clock.systemUTC());
+	}
+
+	JwkKeyStore(Path file, SignatureAlgorithm algorithm, Duration rotation, int retiredKeys, Clock clock) {
+		Assert.notNull(file, "file cannot be null");
+		Assert.isTrue(algorithm == SignatureAlgorithm.RS256 || algorithm == SignatureAlgorithm.ES256,
+				"algorithm must be RS256 or ES256");
+		Assert.isTrue(!rotation.isNegative() && !rotation.isZero(), "rotation must be positive");
+		Assert.isTrue(retiredKeys >= 0, "retiredKeys cannot be negative");
+		this.file = file;
+		this.algorithm = algorithm;
+		this.rotation = rotation;
+		this.retiredKeys = retiredKeys;
+		this.clock = clock;
+		this.lock = LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), path -> new ReentrantLock());
+		this.keys = read();
+		if (signingKey() == null || isDue(signingKey())) {
+			update(false);
+		}
+	}
+
+	public SignatureAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * The key new tokens are signed with, rotated first if it has reached its age limit.
+	 */
+	public JWK currentSigningKey() {
+		JWK key = signingKey();
+		if (key == null || isDue(key)) {
+			update(false);
+			key = signingKey();
+		}
+		return key;
+	}
+
+	/**
+	 * Generates a new signing key, keeps the previous ones for verification and writes
+	 * the set back to the file.
+	 */
+	public void rotate() {
+		update(true);
+	}
+
+	/**
+	 * Merges the file's keys with ours under the file lock and generates a signing key
+	 * when forced or when neither has a current one, then writes the merged set.
+	 */
+	private void update(boolean force) {
+		lock.lock();
+		try (FileChannel channel = FileChannel.open(lockFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+				FileLock fileLock = channel.lock()) {
+			Map<String, JWK> merged = new LinkedHashMap<>();
+			for (JWK key : read().getKeys()) {
+				merged.put(key.getKeyID(), key);
+			}
+			for (JWK key : keys.getKeys()) {
+				merged.putIfAbsent(key.getKeyID(), key);
+			}
+			keys = new JWKSet(new ArrayList<>(merged.values()));
+			if (force || signingKey() == null || isDue(signingKey())) {
+				JWK generated = generate();
+				merged.put(generated.getKeyID(), generated);
+			}
+			List<JWK> list = new ArrayList<>();
+			for (JWK key : sorted(new JWKSet(new ArrayList<>(merged.values())))) {
+				if (list.size() > retiredKeys) {
+					break;
+				}
+				list.add(key);
+			}
+			keys = new JWKSet(list);
+			write(keys);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Source for the token encoder. It offers only the current signing key, unless the
+	 * header names the {@code kid} of a key that was rotated out in the meantime.
+	 */
+	public JWKSource<SecurityContext> signingKeySource() {
+		return (jwkSelector, securityContext) -> {
+			List<JWK> selected = jwkSelector.select(new JWKSet(currentSigningKey()));
+			return selected.isEmpty() ? jwkSelector.select(keys) : selected;
+		};
+	}
+
+	/**
+	 * Source holding every key in the store, for token verification and the JWK set
+	 * endpoint.
+	 */
+	public JWKSource<SecurityContext> verificationKeySource() {
+		return (jwkSelector, securityContext) -> {
+			List<JWK> selected = jwkSelector.select(keys);
+			if (selected.isEmpty() && reloadIfAllowed()) {
+				selected = jwkSelector.select(keys);
+			}
+			return selected;
+		};
+	}
+
+	public List<String> getKeyIds() {
+		return sorted(keys).stream().map(JWK::getKeyID).toList();
+	}
+
+	private JWK signingKey() {
+		// after switching algorithms the old keys only verify, the first run generates a new one
+		// @formatter:off
+		return sorted(keys).stream()
+				.filter(key -> key.getAlgorithm() != null && key.getAlgorithm().getName().equals(algorithm.getName()))
+				.findFirst()
+				.orElse(null);
+		// @formatter:on
+	}
+
+	private boolean isDue(JWK key) {
+		Date issued = key.getIssueTime();
+		return issued == null || !issued.toInstant().plus(rotation).isAfter(clock.instant());
+	}
+
+	private boolean reloadIfAllowed() {
+		Instant now = clock.instant();
+		lock.lock();
+		try {
+			if (lastReload.plus(RELOAD_INTERVAL).isAfter(now)) {
+				return false;
+			}
+			lastReload = now;
+			keys = read();
+		} finally {
+			lock.unlock();
+		}
+		return true;
+	}
+
+	private static List<JWK> sorted(JWKSet set) {
+		// @formatter:off
+		return set.getKeys().stream()
+				.filter(JWK::isPrivate)
+				.sorted(Comparator.comparing((JWK key) -> key.getIssueTime() == null ? new Date(0) : key.getIssueTime()).reversed())
+				.toList();
+		// @formatter:on
+	}
+
+	private JWK generate() {
+		Date now = Date.from(clock.instant());
+		String keyId = UUID.randomUUID().toString();
+		try {
+			if (algorithm == SignatureAlgorithm.ES256) {
+				return new ECKeyGenerator(Curve.P_256).keyUse(KeyUse.SIGNATURE).algorithm(JWSAlgorithm.ES256)
+						.keyID(keyId).issueTime(now).generate();
+			}
+			return new RSAKeyGenerator(2048).keyUse(KeyUse.SIGNATURE).algorithm(JWSAlgorithm.RS256)
+					.keyID(keyId).issueTime(now).generate();
+		} catch (JOSEException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private Path lockFile() throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		return dir.resolve(file.getFileName() + ".lock");
+	}
+
+	private JWKSet read() {
+		if (!Files.exists(file)) {
+			return new JWKSet();
+		}
+		try {
+			return JWKSet.parse(Files.readString(file, StandardCharsets.UTF_8));
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		} catch (ParseException ex) {
+			throw new IllegalStateException("Invalid JWK set in " + file, ex);
+		}
+	}
+
+	private void write(JWKSet set) {
+		try {
+			Path dir = file.toAbsolutePath().getParent();
+			Files.createDirectories(dir);
+			Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+			try {
+				Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-------"));
+			} catch (UnsupportedOperationException ex) {
+				// not a POSIX file system; rely on the directory's permissions
+			}
+			Files.writeString(tmp, set.toString(false), StandardCharsets.UTF_8);
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.devsuperior.dscommerce.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.devsuperior.dscommerce.config.ReadWriteRoutingDataSource.Route;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.CacheStoreMode;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces Boot's single DataSource with a primary and a replica pool behind a
+ * {@link ReadWriteRoutingDataSource} when {@code datasource.replica.enabled} is set. The
+ * primary keeps {@code spring.datasource.*}; the replica is configured under
+ * {@code datasource.replica.*}, its pool under {@code datasource.replica.hikari.*}.
+ * <p>
+ * Anything cached beyond a transaction must be read from the primary, or a replica behind
+ * by a few seconds would leave it stale until it expires. Sessions of transactions routed
+ * to the replica therefore only read the second-level and query caches, never fill them;
+ * the node-local caches read through read-write repository methods instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+	@Value("${datasource.replica.url}")
+	private String replicaUrl;
+
+	@Value("${datasource.replica.username}")
+	private String replicaUsername;
+
+	@Value("${datasource.replica.password}")
+	private String replicaPassword;
+
+	@Value("${datasource.replica.lag-query}")
+	private String lagQuery;
+
+	@Value("${datasource.replica.max-lag}")
+	private Long maxLagMillis;
+
+	@Value("${datasource.replica.lag-check-interval}")
+	private Long lagCheckIntervalMillis;
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	@ConfigurationProperties("datasource.replica.hikari")
+	public HikariDataSource replicaDataSource() {
+		// @formatter:off
+		return DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(replicaUrl)
+				.username(replicaUsername)
+				.password(replicaPassword)
+				.build();
+		// @formatter:on
+	}
+
+	@Bean
+	public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+			MeterRegistry meterRegistry) {
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, lagQuery, Duration.ofMillis(maxLagMillis));
+		// @formatter:off
+		Gauge.builder("datasource.replica.lag", monitor, ReplicaLagMonitor::getLagMillis)
+				.description("Replication lag last reported by the replica")
+				.baseUnit("milliseconds")
+				.register(meterRegistry);
+		Gauge.builder("datasource.replica.usable", monitor, m -> m.isUsable() ? 1 : 0)
+				.description("Whether read-only transactions are sent to the replica")
+				.register(meterRegistry);
+		// @formatter:on
+		monitor.start(Duration.ofMillis(lagCheckIntervalMillis));
+		return monitor;
+	}
+
+	@Bean
+	public PlatformTransactionManager transactionManager(ReplicaLagMonitor replicaLagMonitor,
+			ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+		JpaTransactionManager transactionManager = new ReplicaCacheModeTransactionManager(replicaLagMonitor);
+		transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+		return transactionManager;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+			@Qualifier("replicaDataSource") DataSource replica, ReplicaLagMonitor replicaLagMonitor,
+			MeterRegistry meterRegistry) {
+		return new LazyConnectionDataSourceProxy(
+				new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor, meterRegistry));
+	}
+
+	private static final class ReplicaCacheModeTransactionManager extends JpaTransactionManager {
+
+		private final ReplicaLagMonitor replicaLagMonitor;
+
+		ReplicaCacheModeTransactionManager(ReplicaLagMonitor replicaLagMonitor) {
+			this.replicaLagMonitor = replicaLagMonitor;
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+			// decided once: the routing data source reads this route instead of the monitor,
+			// so the cache store mode always matches the pool the statements run on
+			Route route = ReadWriteRoutingDataSource.route(definition.isReadOnly(), replicaLagMonitor);
+			ReadWriteRoutingDataSource.bindRoute(route);
+			try {
+				super.doBegin(transaction, definition);
+			}
+			catch (RuntimeException e) {
+				ReadWriteRoutingDataSource.unbindRoute();
+				throw e;
+			}
+			EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager
+				.getResource(obtainEntityManagerFactory());
+			holder.getEntityManager().setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE,
+					route == Route.REPLICA ? CacheStoreMode.BYPASS : CacheStoreMode.USE);
+		}
+
+		@Override
+		protected Object doSuspend(Object transaction) {
+			Route route = ReadWriteRoutingDataSource.unbindRoute();
+			return new SuspendedRoute(super.doSuspend(transaction), route);
+		}
+
+		@Override
+		protected void doResume(Object transaction, Object suspendedResources) {
+			SuspendedRoute suspended = (SuspendedRoute) suspendedResources;
+			super.doResume(transaction, suspended.resources);
+			if (suspended.route != null) {
+				ReadWriteRoutingDataSource.bindRoute(suspended.route);
+			}
+		}
+
+		@Override
+		protected void doCleanupAfterCompletion(Object transaction) {
+			ReadWriteRoutingDataSource.unbindRoute();
+			super.doCleanupAfterCompletion(transaction);
+		}
+	}
+
+	private static final class SuspendedRoute {
+
+		private final Object resources;
+		private final Route route;
+
+		SuspendedRoute(Object resources, Route route) {
+			this.resources = resources;
+			this.route = route;
+		}
+	}
+}
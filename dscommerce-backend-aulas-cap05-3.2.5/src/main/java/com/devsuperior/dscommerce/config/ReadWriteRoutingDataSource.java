@@ -0,0 +1,91 @@
+package com.devsuperior.dscommerce.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the
+ * primary. Reads fall back to the primary while {@link ReplicaLagMonitor} reports the
+ * replica as lagging or down. Each decision is counted in {@code datasource.route}, tagged
+ * with the route and the transaction type.
+ * <p>
+ * A transaction manager that also depends on the route (to pick the cache store mode)
+ * decides it once in {@code doBegin} and binds it with {@link #bindRoute}; the route is
+ * then taken from there rather than from the monitor, which may have changed by the time
+ * the first statement runs.
+ * <p>
+ * The transaction manager opens the connection before it marks the transaction read-only,
+ * so this must sit behind a {@code LazyConnectionDataSourceProxy}, which only asks for a
+ * connection at the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	public enum Route {
+		PRIMARY, REPLICA
+	}
+
+	private static final String ROUTE_RESOURCE = ReadWriteRoutingDataSource.class.getName() + ".route";
+
+	private final ReplicaLagMonitor replicaMonitor;
+	private final Counter writes;
+	private final Counter reads;
+	private final Counter fallbackReads;
+
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaMonitor,
+			MeterRegistry meterRegistry) {
+		this.replicaMonitor = replicaMonitor;
+		this.writes = counter(meterRegistry, "primary", "read-write");
+		this.reads = counter(meterRegistry, "replica", "read-only");
+		this.fallbackReads = counter(meterRegistry, "primary", "read-only");
+		setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	public static Route route(boolean readOnly, ReplicaLagMonitor replicaMonitor) {
+		return readOnly && replicaMonitor.isUsable() ? Route.REPLICA : Route.PRIMARY;
+	}
+
+	public static void bindRoute(Route route) {
+		TransactionSynchronizationManager.bindResource(ROUTE_RESOURCE, route);
+	}
+
+	public static Route unbindRoute() {
+		return (Route) TransactionSynchronizationManager.unbindResourceIfPossible(ROUTE_RESOURCE);
+	}
+
+	@Override
+	protected Route determineCurrentLookupKey() {
+		boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		Route route = (Route) TransactionSynchronizationManager.getResource(ROUTE_RESOURCE);
+		if (route == null) {
+			route = route(readOnly, replicaMonitor);
+		}
+		if (!readOnly) {
+			writes.increment();
+		}
+		else if (route == Route.REPLICA) {
+			reads.increment();
+		}
+		else {
+			fallbackReads.increment();
+		}
+		return route;
+	}
+
+	private static Counter counter(MeterRegistry meterRegistry, String route, String transaction) {
+		// @formatter:off
+		return Counter.builder("datasource.route")
+				.description("Connections handed out by the read/write routing data source")
+				.tags("route", route, "transaction", transaction)
+				.register(meterRegistry);
+		// @formatter:on
+	}
+}
@@ -0,0 +1,87 @@
+package com.devsuperior.dscommerce.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Checks the read replica on a background thread and tells {@link ReadWriteRoutingDataSource}
+ * whether reads may go to it. The replica is usable while it answers and the lag reported
+ * by the lag query (in milliseconds, e.g. from {@code pg_last_xact_replay_timestamp()} on
+ * PostgreSQL) stays within the maximum. The query is required: a replica that merely
+ * answers may still be minutes behind.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+	private final DataSource replica;
+	private final String lagQuery;
+	private final long maxLagMillis;
+
+	private volatile boolean usable = true;
+	private volatile long lagMillis;
+	private ScheduledExecutorService executor;
+
+	public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+		Assert.hasText(lagQuery, "lagQuery cannot be empty");
+		this.replica = replica;
+		this.lagQuery = lagQuery;
+		this.maxLagMillis = maxLag.toMillis();
+	}
+
+	public synchronized void start(Duration interval) {
+		check();
+		if (executor == null) {
+			executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("replica-lag").daemon().factory());
+			executor.scheduleWithFixedDelay(this::check, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public boolean isUsable() {
+		return usable;
+	}
+
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	void check() {
+		boolean wasUsable = usable;
+		try (Connection connection = replica.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet result = statement.executeQuery(lagQuery)) {
+			lagMillis = result.next() ? Math.max(0, result.getLong(1)) : 0;
+			usable = lagMillis <= maxLagMillis;
+		} catch (SQLException e) {
+			usable = false;
+			if (wasUsable) {
+				LOG.warn("Read replica check failed: {}", e.getMessage());
+			}
+		}
+		if (wasUsable && !usable) {
+			LOG.warn("Read replica lagging ({} ms) or unavailable, reads go to the primary", lagMillis);
+		} else if (!wasUsable && usable) {
+			LOG.info("Read replica caught up ({} ms), reads go to the replica again", lagMillis);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+}
@@ -1,8 +1,12 @@
 package com.devsuperior.dscommerce.config;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -10,11 +14,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
@@ -30,6 +36,12 @@ public class ResourceServerConfig {
 	@Value("${cors.origins}")
 	private String corsOrigins;
 
+	@Value("${security.jwt.authentication-cache.max-size}")
+	private Integer jwtAuthenticationCacheMaxSize;
+
+	@Value("${security.jwt.authentication-cache.max-ttl}")
+	private Integer jwtAuthenticationCacheMaxTtlSeconds;
+
 	@Bean
 	@Profile("test")
 	@Order(1)
@@ -42,15 +54,29 @@ public class ResourceServerConfig {
 
 	@Bean
 	@Order(3)
-	public SecurityFilterChain rsSecurityFilterChain(HttpSecurity http) throws Exception {
+	public SecurityFilterChain rsSecurityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
 
 		http.csrf(csrf -> csrf.disable());
-		http.authorizeHttpRequests((authorize) -> authorize.anyRequest().permitAll());
-		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
+		// @formatter:off
+		http.authorizeHttpRequests((authorize) -> authorize
+				.requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class)).permitAll()
+				.requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+				.anyRequest().permitAll());
+		// @formatter:on
+		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer
+				.jwt(jwt -> jwt.authenticationManager(jwtAuthenticationManager(jwtDecoder))));
 		http.cors(cors -> cors.configurationSource(corsConfigurationSource()));
 		return http.build();
 	}
 
+	@Bean
+	public CachingJwtAuthenticationManager jwtAuthenticationManager(JwtDecoder jwtDecoder) {
+		JwtAuthenticationProvider provider = new JwtAuthenticationProvider(jwtDecoder);
+		provider.setJwtAuthenticationConverter(jwtAuthenticationConverter());
+		return new CachingJwtAuthenticationManager(new ProviderManager(provider), jwtAuthenticationCacheMaxSize,
+				Duration.ofSeconds(jwtAuthenticationCacheMaxTtlSeconds));
+	}
+
 	@Bean
 	public JwtAuthenticationConverter jwtAuthenticationConverter() {
 		JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
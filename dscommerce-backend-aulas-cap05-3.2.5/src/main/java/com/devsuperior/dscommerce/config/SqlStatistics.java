@@ -0,0 +1,59 @@
+package com.devsuperior.dscommerce.config;
+
+/**
+ * Statements, rows and JDBC time accumulated by the current thread between
+ * {@link #start()} and {@link #stop()}, normally one HTTP request. Work done on other
+ * threads (e.g. {@code @Async} methods) is not included.
+ */
+public final class SqlStatistics {
+
+	private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+	private long statements;
+	private long rows;
+	private long elapsedNanos;
+
+	/**
+	 * Starts counting on the current thread, replacing any statistics already started.
+	 */
+	public static SqlStatistics start() {
+		SqlStatistics statistics = new SqlStatistics();
+		CURRENT.set(statistics);
+		return statistics;
+	}
+
+	/**
+	 * The statistics being collected on the current thread, or {@code null}.
+	 */
+	public static SqlStatistics current() {
+		return CURRENT.get();
+	}
+
+	public static void stop() {
+		CURRENT.remove();
+	}
+
+	void addStatements(long count, long elapsedNanos) {
+		statements += count;
+		this.elapsedNanos += elapsedNanos;
+	}
+
+	void addRows(long count) {
+		rows += count;
+	}
+
+	public long getStatements() {
+		return statements;
+	}
+
+	/**
+	 * Rows read from result sets plus rows reported changed by updates.
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+}
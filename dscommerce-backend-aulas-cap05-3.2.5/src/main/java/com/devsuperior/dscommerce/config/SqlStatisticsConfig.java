@@ -0,0 +1,124 @@
+package com.devsuperior.dscommerce.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the DataSource in a datasource-proxy so statements, rows and JDBC time are
+ * counted per HTTP request ({@link SqlStatistics}) and slow statements are logged.
+ * With {@code sql-statistics.metrics} the counts are also recorded per endpoint as
+ * {@code sql.statements}, {@code sql.rows} and {@code sql.time}; the response headers
+ * are added by {@code SqlStatisticsHeaderAdvice}. Result sets are only proxied, to count
+ * the rows read, when one of the two is enabled: that costs a reflective call per row.
+ */
+@Configuration
+public class SqlStatisticsConfig {
+
+	@Bean
+	public static BeanPostProcessor sqlStatisticsDataSourceProxy(
+			@Value("${sql-statistics.slow-query-threshold}") Long slowQueryThresholdMillis,
+			@Value("${sql-statistics.log-parameters}") Boolean logParameters,
+			@Value("${sql-statistics.log-sample-rate}") Double logSampleRate,
+			@Value("${sql-statistics.headers}") Boolean headers, @Value("${sql-statistics.metrics}") Boolean metrics) {
+		SqlStatisticsListener listener = new SqlStatisticsListener(Duration.ofMillis(slowQueryThresholdMillis),
+				logParameters, logSampleRate);
+		boolean countRows = headers || metrics;
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				// only the DataSource the application uses, not the pools behind a routing one
+				if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+						&& "dataSource".equals(beanName)) {
+					// @formatter:off
+					ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+							.name(beanName)
+							.listener(listener);
+					// @formatter:on
+					if (countRows) {
+						builder.methodListener(listener).proxyResultSet();
+					}
+					return builder.build();
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public FilterRegistrationBean<OncePerRequestFilter> sqlStatisticsFilter(MeterRegistry meterRegistry,
+			@Value("${sql-statistics.metrics}") Boolean metrics) {
+		FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(
+				new SqlStatisticsFilter(metrics ? meterRegistry : null));
+		// outside the security filters, so the queries they run are counted too
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+		return registration;
+	}
+
+	private static class SqlStatisticsFilter extends OncePerRequestFilter {
+
+		private final MeterRegistry meterRegistry;
+
+		SqlStatisticsFilter(MeterRegistry meterRegistry) {
+			this.meterRegistry = meterRegistry;
+		}
+
+		@Override
+		protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+				throws ServletException, IOException {
+			SqlStatistics statistics = SqlStatistics.start();
+			try {
+				chain.doFilter(request, response);
+			} finally {
+				SqlStatistics.stop();
+				if (meterRegistry != null) {
+					record(request, statistics);
+				}
+			}
+		}
+
+		private void record(HttpServletRequest request, SqlStatistics statistics) {
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+			String method = request.getMethod();
+			// @formatter:off
+			DistributionSummary.builder("sql.statements")
+					.description("SQL statements executed per HTTP request")
+					.tags("method", method, "uri", uri)
+					.register(meterRegistry)
+					.record(statistics.getStatements());
+			DistributionSummary.builder("sql.rows")
+					.description("Rows read or changed per HTTP request")
+					.tags("method", method, "uri", uri)
+					.register(meterRegistry)
+					.record(statistics.getRows());
+			Timer.builder("sql.time")
+					.description("JDBC time per HTTP request")
+					.tags("method", method, "uri", uri)
+					.register(meterRegistry)
+					.record(Duration.ofNanos(statistics.getElapsedNanos()));
+			// @formatter:on
+		}
+	}
+}
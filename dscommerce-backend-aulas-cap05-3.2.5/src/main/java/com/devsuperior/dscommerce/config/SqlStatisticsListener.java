@@ -0,0 +1,125 @@
+package com.devsuperior.dscommerce.config;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Feeds {@link SqlStatistics} from the datasource proxy and logs statements that take
+ * at least the slow-query threshold, with their bind parameters when enabled. Statements
+ * are timed with {@link System#nanoTime()}: the proxy's own elapsed time is in whole
+ * milliseconds, which rounds most statements to 0. Rows are counted as
+ * {@link ResultSet#next()} calls that returned a row, when registered as method listener
+ * on a result set proxy, plus update counts.
+ * A sample of all statements goes to the {@value #SQL_LOGGER} logger at DEBUG, in place
+ * of Hibernate's show-sql, which prints every statement synchronously.
+ */
+public class SqlStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+	public static final String SQL_LOGGER = "dscommerce.sql";
+
+	private static final Logger LOG = LoggerFactory.getLogger(SqlStatisticsListener.class);
+	private static final Logger SQL_LOG = LoggerFactory.getLogger(SQL_LOGGER);
+	private static final String START_NANOS = SqlStatisticsListener.class.getName() + ".start";
+
+	private final long slowQueryNanos;
+	private final boolean logParameters;
+	private final double sampleRate;
+
+	public SqlStatisticsListener(Duration slowQueryThreshold, boolean logParameters, double sampleRate) {
+		this.slowQueryNanos = slowQueryThreshold.toNanos();
+		this.logParameters = logParameters;
+		this.sampleRate = sampleRate;
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		execInfo.addCustomValue(START_NANOS, System.nanoTime());
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+		long elapsedNanos = start != null ? System.nanoTime() - start : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+		SqlStatistics statistics = SqlStatistics.current();
+		if (statistics != null) {
+			statistics.addStatements(execInfo.isBatch() ? Math.max(1, execInfo.getBatchSize()) : queryInfoList.size(),
+					elapsedNanos);
+			statistics.addRows(updateCount(execInfo.getResult()));
+		}
+		if (slowQueryNanos > 0 && elapsedNanos >= slowQueryNanos) {
+			LOG.warn("Slow query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), describe(queryInfoList));
+		} else if (sampleRate > 0 && SQL_LOG.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			SQL_LOG.debug("({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), describe(queryInfoList));
+		}
+	}
+
+	@Override
+	public void beforeMethod(MethodExecutionContext executionContext) {
+	}
+
+	@Override
+	public void afterMethod(MethodExecutionContext executionContext) {
+		if (executionContext.getTarget() instanceof ResultSet && "next".equals(executionContext.getMethod().getName())
+				&& Boolean.TRUE.equals(executionContext.getResult())) {
+			SqlStatistics statistics = SqlStatistics.current();
+			if (statistics != null) {
+				statistics.addRows(1);
+			}
+		}
+	}
+
+	private String describe(List<QueryInfo> queryInfoList) {
+		// @formatter:off
+		return queryInfoList.stream()
+				.map(query -> logParameters ? query.getQuery() + " " + parameters(query) : query.getQuery())
+				.collect(Collectors.joining("; "));
+		// @formatter:on
+	}
+
+	private static String parameters(QueryInfo query) {
+		// @formatter:off
+		return query.getParametersList().stream()
+				.map(operations -> operations.stream()
+						.map(ParameterSetOperation::getArgs)
+						.filter(args -> args.length > 1)
+						.map(args -> String.valueOf(args[1]))
+						.collect(Collectors.joining(", ", "[", "]")))
+				.collect(Collectors.joining(" "));
+		// @formatter:on
+	}
+
+	private static long updateCount(Object result) {
+		if (result instanceof Integer count && count > 0) {
+			return count;
+		}
+		if (result instanceof Long count && count > 0) {
+			return count;
+		}
+		long total = 0;
+		if (result instanceof int[] counts) {
+			for (int count : counts) {
+				total += Math.max(0, count);
+			}
+		}
+		if (result instanceof long[] counts) {
+			for (long count : counts) {
+				total += Math.max(0, count);
+			}
+		}
+		return total;
+	}
+}
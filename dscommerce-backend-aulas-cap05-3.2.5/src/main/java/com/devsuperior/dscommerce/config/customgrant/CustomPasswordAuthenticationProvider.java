@@ -1,7 +1,6 @@
 package com.devsuperior.dscommerce.config.customgrant;
 
 import java.security.Principal;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -10,6 +9,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -32,6 +32,13 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Toke
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.util.Assert;
 
+import com.devsuperior.dscommerce.entities.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
 public class CustomPasswordAuthenticationProvider implements AuthenticationProvider {
 
 	private static final String ERROR_URI = "https://datatracker.ietf.org/doc/html/rfc6749#section-5.2";
@@ -39,9 +46,8 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 	private final UserDetailsService userDetailsService;
 	private final OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator;
 	private final PasswordEncoder passwordEncoder;
-	private String username = "";
-	private String password = "";
-	private Set<String> authorizedScopes = new HashSet<>();
+	private UserDetailsPasswordService userDetailsPasswordService;
+	private MeterRegistry meterRegistry = Metrics.globalRegistry;
 
 	public CustomPasswordAuthenticationProvider(OAuth2AuthorizationService authorizationService,
 			OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator, 
@@ -59,12 +65,33 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 	
 	@Override
 	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "failure";
+		try {
+			Authentication result = issueToken(authentication);
+			outcome = "success";
+			return result;
+		} finally {
+			Counter.builder("auth.login.attempts")
+					.description("Password grant login attempts")
+					.tag("outcome", outcome)
+					.register(meterRegistry)
+					.increment();
+			sample.stop(Timer.builder("auth.login")
+					.description("Time to check the credentials and issue the token")
+					.tag("outcome", outcome)
+					.register(meterRegistry));
+		}
+	}
+
+	private Authentication issueToken(Authentication authentication) {
 		
 		CustomPasswordAuthenticationToken customPasswordAuthenticationToken = (CustomPasswordAuthenticationToken) authentication;
 		OAuth2ClientAuthenticationToken clientPrincipal = getAuthenticatedClientElseThrowInvalidClient(customPasswordAuthenticationToken);
 		RegisteredClient registeredClient = clientPrincipal.getRegisteredClient();
-		username = customPasswordAuthenticationToken.getUsername();
-		password = customPasswordAuthenticationToken.getPassword();	
+		// locals, not fields: the provider is shared by concurrent token requests
+		String username = customPasswordAuthenticationToken.getUsername();
+		String password = customPasswordAuthenticationToken.getPassword();
 		
 		UserDetails user = null;
 		try {
@@ -76,15 +103,20 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 		if (!passwordEncoder.matches(password, user.getPassword()) || !user.getUsername().equals(username)) {
 			throw new OAuth2AuthenticationException("Invalid credentials");
 		}
+
+		if (userDetailsPasswordService != null && passwordEncoder.upgradeEncoding(user.getPassword())) {
+			userDetailsPasswordService.updatePassword(user, passwordEncoder.encode(password));
+		}
 		
-		authorizedScopes = user.getAuthorities().stream()
+		Set<String> authorizedScopes = user.getAuthorities().stream()
 				.map(scope -> scope.getAuthority())
 				.filter(scope -> registeredClient.getScopes().contains(scope))
 				.collect(Collectors.toSet());
 		
 		//-----------Create a new Security Context Holder Context----------
 		OAuth2ClientAuthenticationToken oAuth2ClientAuthenticationToken = (OAuth2ClientAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
-		CustomUserAuthorities customPasswordUser = new CustomUserAuthorities(username, user.getAuthorities());
+		Long userId = (user instanceof User entity) ? entity.getId() : null;
+		CustomUserAuthorities customPasswordUser = new CustomUserAuthorities(userId, username, user.getAuthorities());
 		oAuth2ClientAuthenticationToken.setDetails(customPasswordUser);
 		
 		var newcontext = SecurityContextHolder.createEmptyContext();
@@ -131,6 +163,22 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 		return new OAuth2AccessTokenAuthenticationToken(registeredClient, clientPrincipal, accessToken);
 	}
 
+	/**
+	 * When set, passwords whose stored hash is weaker than the encoder's current settings
+	 * are re-hashed and saved after a successful login.
+	 */
+	public void setUserDetailsPasswordService(UserDetailsPasswordService userDetailsPasswordService) {
+		this.userDetailsPasswordService = userDetailsPasswordService;
+	}
+
+	/**
+	 * Registry for the {@code auth.login.attempts} counter and {@code auth.login} timer,
+	 * both tagged with the outcome. Defaults to the global registry.
+	 */
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
 	@Override
 	public boolean supports(Class<?> authentication) {
 		return CustomPasswordAuthenticationToken.class.isAssignableFrom(authentication);
@@ -1,14 +1,15 @@
 package com.devsuperior.dscommerce.controllers;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.services.CategoryListJson;
 import com.devsuperior.dscommerce.services.CategoryService;
 
 @RestController
@@ -18,9 +19,12 @@ public class CategoryController {
     @Autowired
     private CategoryService service;
 
-    @GetMapping
-    public ResponseEntity<List<CategoryDTO>> findAll() {
-        List<CategoryDTO> list = service.findAll();
-        return ResponseEntity.ok(list);
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> findAll(WebRequest request) {
+        CategoryListJson list = service.findAllJson();
+        if (request.checkNotModified(list.getETag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(list.getETag()).cacheControl(CacheControl.noCache()).body(list.getJson());
     }
 }
@@ -1,6 +1,7 @@
 package com.devsuperior.dscommerce.controllers;
 
 import java.net.URI;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscommerce.dto.OrderBatchResultDTO;
 import com.devsuperior.dscommerce.dto.OrderDTO;
 import com.devsuperior.dscommerce.services.OrderService;
 
@@ -39,5 +41,12 @@ public class OrderController {
         URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
                 .buildAndExpand(dto.getId()).toUri();
         return ResponseEntity.created(uri).body(dto);
-    } 
+    }
+
+    @PreAuthorize("hasRole('ROLE_CLIENT')")
+    @PostMapping(value = "/batch")
+    public ResponseEntity<List<OrderBatchResultDTO>> insertAll(@RequestBody List<OrderDTO> dtos) {
+        List<OrderBatchResultDTO> results = service.insertAll(dtos);
+        return ResponseEntity.ok(results);
+    }
 }
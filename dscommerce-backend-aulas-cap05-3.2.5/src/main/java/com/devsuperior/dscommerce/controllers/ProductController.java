@@ -5,6 +5,8 @@ import java.net.URI;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,8 +18,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscommerce.dto.ProductCursorPageDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.services.ProductService;
@@ -32,9 +36,25 @@ public class ProductController {
     private ProductService service;
 
     @GetMapping(value = "/{id}")
-    public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> findById(@PathVariable Long id, WebRequest request) {
+        Long version = null;
+        String eTag = null;
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            version = service.findVersionById(id);
+            eTag = service.eTag(id, version);
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+        }
         ProductDTO dto = service.findById(id);
-        return ResponseEntity.ok(dto);
+        if (version == null) {
+            eTag = service.eTag(id, dto.getVersion());
+        }
+        else if (!version.equals(dto.getVersion())) {
+            // a lagging replica returned an older body: caching it under the newer ETag would pin it
+            eTag = null;
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(dto);
     }
 
     @GetMapping
@@ -45,6 +65,16 @@ public class ProductController {
         return ResponseEntity.ok(dto);
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<ProductCursorPageDTO> findAllAfter(
+            @RequestParam(name = "name", defaultValue = "") String name,
+            @RequestParam(name = "after") String after,
+            @RequestParam(name = "sort", defaultValue = "id") String sort,
+            @RequestParam(name = "size", defaultValue = "20") Integer size) {
+        ProductCursorPageDTO dto = service.findAllAfter(name, after, sort, Math.max(1, Math.min(size, 100)));
+        return ResponseEntity.ok(dto);
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping
     public ResponseEntity<ProductDTO> insert(@Valid @RequestBody ProductDTO dto) {
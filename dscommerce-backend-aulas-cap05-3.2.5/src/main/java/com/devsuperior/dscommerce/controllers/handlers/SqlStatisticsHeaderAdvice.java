@@ -0,0 +1,46 @@
+package com.devsuperior.dscommerce.controllers.handlers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.devsuperior.dscommerce.config.SqlStatistics;
+
+/**
+ * Adds the request's SQL counts as response headers, just before the body is written
+ * (the services have returned by then). For development and test profiles only.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "sql-statistics.headers", havingValue = "true")
+public class SqlStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+            response.getHeaders().set(ROWS_HEADER, String.valueOf(statistics.getRows()));
+            response.getHeaders().set(TIME_HEADER,
+                    String.valueOf(TimeUnit.NANOSECONDS.toMillis(statistics.getElapsedNanos())));
+        }
+        return body;
+    }
+}
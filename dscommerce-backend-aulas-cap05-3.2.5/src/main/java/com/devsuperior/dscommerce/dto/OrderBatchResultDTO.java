@@ -0,0 +1,43 @@
+package com.devsuperior.dscommerce.dto;
+
+public class OrderBatchResultDTO {
+
+	public static final String CREATED = "CREATED";
+	public static final String FAILED = "FAILED";
+
+	private Integer index;
+	private String status;
+	private OrderDTO order;
+	private String error;
+
+	public OrderBatchResultDTO(Integer index, String status, OrderDTO order, String error) {
+		this.index = index;
+		this.status = status;
+		this.order = order;
+		this.error = error;
+	}
+
+	public static OrderBatchResultDTO created(Integer index, OrderDTO order) {
+		return new OrderBatchResultDTO(index, CREATED, order, null);
+	}
+
+	public static OrderBatchResultDTO failed(Integer index, String error) {
+		return new OrderBatchResultDTO(index, FAILED, null, error);
+	}
+
+	public Integer getIndex() {
+		return index;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public OrderDTO getOrder() {
+		return order;
+	}
+
+	public String getError() {
+		return error;
+	}
+}
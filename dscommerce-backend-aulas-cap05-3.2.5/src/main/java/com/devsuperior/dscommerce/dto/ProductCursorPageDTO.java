@@ -0,0 +1,34 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.util.List;
+
+public class ProductCursorPageDTO {
+
+    private List<ProductMinDTO> content;
+    private Integer size;
+    private Boolean hasNext;
+    private String nextCursor;
+
+    public ProductCursorPageDTO(List<ProductMinDTO> content, String nextCursor) {
+        this.content = content;
+        this.size = content.size();
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductMinDTO> getContent() {
+        return content;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
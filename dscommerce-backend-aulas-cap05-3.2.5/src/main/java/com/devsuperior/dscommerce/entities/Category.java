@@ -1,6 +1,8 @@
 package com.devsuperior.dscommerce.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Objects;
@@ -8,10 +10,13 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tb_category")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheRegions.CATEGORY)
+@EntityListeners(CategoryChangeListener.class)
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_category_seq")
+    @SequenceGenerator(name = "tb_category_seq", sequenceName = "tb_category_seq", allocationSize = 50)
     private Long id;
     private String name;
 
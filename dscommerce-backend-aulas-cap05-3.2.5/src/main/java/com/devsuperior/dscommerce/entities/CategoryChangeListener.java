@@ -0,0 +1,26 @@
+package com.devsuperior.dscommerce.entities;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Publishes a {@link CategoryChangedEvent} whenever a category is written through JPA.
+ */
+@Component
+public class CategoryChangeListener {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Category category) {
+        publisher.publishEvent(new CategoryChangedEvent(category.getId()));
+    }
+}
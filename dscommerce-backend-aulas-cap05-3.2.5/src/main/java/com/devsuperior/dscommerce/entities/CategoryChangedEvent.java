@@ -0,0 +1,18 @@
+package com.devsuperior.dscommerce.entities;
+
+/**
+ * A category was inserted, updated or deleted. Published during the flush, so listeners run
+ * inside the writing transaction.
+ */
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+
+    public CategoryChangedEvent(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
@@ -0,0 +1,13 @@
+package com.devsuperior.dscommerce.entities;
+
+public final class HibernateCacheRegions {
+
+    public static final String CATEGORY = "category";
+    public static final String PRODUCT = "product";
+    public static final String PRODUCT_CATEGORIES = "product.categories";
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private HibernateCacheRegions() {
+    }
+}
@@ -15,14 +15,21 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tb_product")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheRegions.PRODUCT)
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_product_seq")
+    @SequenceGenerator(name = "tb_product_seq", sequenceName = "tb_product_seq", allocationSize = 50)
     private Long id;
     private String name;
     
@@ -31,7 +38,11 @@ public class Product {
     private Double price;
     private String imgUrl;
 
+    @Version
+    private Long version;
+
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheRegions.PRODUCT_CATEGORIES)
     @JoinTable(name = "tb_product_category",
             joinColumns = @JoinColumn(name = "product_id"),
             inverseJoinColumns = @JoinColumn(name = "category_id"))
@@ -91,6 +102,10 @@ public class Product {
         this.imgUrl = imgUrl;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public Set<Category> getCategories() {
         return categories;
     }
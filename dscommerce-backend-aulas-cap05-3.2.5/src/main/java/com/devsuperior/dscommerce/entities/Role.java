@@ -8,6 +8,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @SuppressWarnings("serial")
@@ -16,7 +17,8 @@ import jakarta.persistence.Table;
 public class Role implements GrantedAuthority {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_role_seq")
+	@SequenceGenerator(name = "tb_role_seq", sequenceName = "tb_role_seq", allocationSize = 50)
 	private Long id;
 	private String authority;
 
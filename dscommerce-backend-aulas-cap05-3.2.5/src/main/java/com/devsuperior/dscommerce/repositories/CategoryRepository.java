@@ -1,9 +1,21 @@
 package com.devsuperior.dscommerce.repositories;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.devsuperior.dscommerce.entities.Category;
 
+import jakarta.persistence.QueryHint;
+
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+	// read-write, so it runs on the primary: CategoryService caches the result
+	@Override
+	@Transactional
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Category> findAll();
 }
@@ -1,14 +1,96 @@
 package com.devsuperior.dscommerce.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.ProductTextProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    @Query("SELECT obj FROM Product obj " +
+    // :term is folded by ProductSearchIndex.fold; the columns are folded the same way for
+    // Portuguese accents, and name and description are matched separately
+    String ACCENTED = "ÁÀÂÃÄÉÈÊËÍÌÎÏÓÒÔÕÖÚÙÛÜÇÑáàâãäéèêëíìîïóòôõöúùûüçñ";
+    String UNACCENTED = "AAAAAEEEEIIIIOOOOOUUUUCNaaaaaeeeeiiiiooooouuuucn";
+    String TEXT_MATCHES = "(LOWER(FUNCTION('translate', obj.name, '" + ACCENTED + "', '" + UNACCENTED + "')) " +
+            "LIKE CONCAT('%', :term, '%') " +
+            "OR LOWER(FUNCTION('translate', obj.description, '" + ACCENTED + "', '" + UNACCENTED + "')) " +
+            "LIKE CONCAT('%', :term, '%'))";
+
+    @Query(value = "SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%'))",
+            countQuery = "SELECT COUNT(obj) FROM Product obj " +
             "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%'))")
-    Page<Product> searchByName(String name, Pageable pageable);
+    Page<ProductMinDTO> searchByName(String name, Pageable pageable);
+
+    @Query(value = "SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE " + TEXT_MATCHES,
+            countQuery = "SELECT COUNT(obj) FROM Product obj " +
+            "WHERE " + TEXT_MATCHES)
+    Page<ProductMinDTO> searchByText(String term, Pageable pageable);
+
+    @Query(value = "SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE obj.id IN :ids AND " + TEXT_MATCHES,
+            countQuery = "SELECT COUNT(obj) FROM Product obj " +
+            "WHERE obj.id IN :ids AND " + TEXT_MATCHES)
+    Page<ProductMinDTO> searchByIdsAndText(Collection<Long> ids, String term, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE obj.id > :afterId " +
+            "ORDER BY obj.id")
+    List<ProductMinDTO> searchAfterId(Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE " + TEXT_MATCHES + " AND obj.id > :afterId " +
+            "ORDER BY obj.id")
+    List<ProductMinDTO> searchByTextAfterId(String term, Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE obj.id IN :ids AND " + TEXT_MATCHES + " AND obj.id > :afterId " +
+            "ORDER BY obj.id")
+    List<ProductMinDTO> searchByIdsAndTextAfterId(Collection<Long> ids, String term, Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE obj.name > :afterName OR (obj.name = :afterName AND obj.id > :afterId) " +
+            "ORDER BY obj.name, obj.id")
+    List<ProductMinDTO> searchAfterName(String afterName, Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE " + TEXT_MATCHES + " " +
+            "AND (obj.name > :afterName OR (obj.name = :afterName AND obj.id > :afterId)) " +
+            "ORDER BY obj.name, obj.id")
+    List<ProductMinDTO> searchByTextAfterName(String term, String afterName, Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+            "FROM Product obj " +
+            "WHERE obj.id IN :ids AND " + TEXT_MATCHES + " " +
+            "AND (obj.name > :afterName OR (obj.name = :afterName AND obj.id > :afterId)) " +
+            "ORDER BY obj.name, obj.id")
+    List<ProductMinDTO> searchByIdsAndTextAfterName(Collection<Long> ids, String term, String afterName, Long afterId, Pageable pageable);
+
+    // read-write, so it runs on the primary: ProductSearchIndex keeps what it reads
+    @Transactional
+    @Query("SELECT obj.id AS id, obj.name AS name, obj.description AS description " +
+            "FROM Product obj " +
+            "WHERE obj.id > :afterId " +
+            "ORDER BY obj.id")
+    List<ProductTextProjection> searchTextAfterId(Long afterId, Pageable pageable);
+
+    @Query("SELECT obj.version FROM Product obj WHERE obj.id = :id")
+    Optional<Long> findVersionById(Long id);
 }
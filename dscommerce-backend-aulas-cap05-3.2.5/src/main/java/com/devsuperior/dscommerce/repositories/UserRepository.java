@@ -5,14 +5,17 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.projections.UserDetailsProjection;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+	// read-write, so it runs on the primary: UserService caches the result
+	@Transactional
 	@Query(nativeQuery = true, value = """
-				SELECT tb_user.email AS username, tb_user.password, tb_role.id AS roleId, tb_role.authority
+				SELECT tb_user.id AS userId, tb_user.email AS username, tb_user.password, tb_role.id AS roleId, tb_role.authority
 				FROM tb_user
 				INNER JOIN tb_user_role ON tb_user.id = tb_user_role.user_id
 				INNER JOIN tb_role ON tb_role.id = tb_user_role.role_id
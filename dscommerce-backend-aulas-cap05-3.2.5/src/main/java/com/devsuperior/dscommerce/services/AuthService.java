@@ -3,21 +3,30 @@ package com.devsuperior.dscommerce.services;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
+
+import io.micrometer.observation.annotation.Observed;
 
 @Service
+@Observed(name = "dscommerce.service")
 public class AuthService {
 
 	@Autowired
 	private UserService userService;
+
+	@Autowired
+	private CustomUserUtil customUserUtil;
 	
 	public void validateSelfOrAdmin(Long userId) {
-		User me = userService.authenticated();
-		if(me.hasRole("ROLE_ADMIN")) {
+		if (customUserUtil.loggedUserHasRole("ROLE_ADMIN")) {
 			return;
 		}
-		if(!me.getId().equals(userId)) {
+		Long myId = customUserUtil.getLoggedUserId();
+		if (myId == null) {
+			myId = userService.authenticated().getId();
+		}
+		if(!myId.equals(userId)) {
 			throw new ForbiddenException("Access denied");
 		}
 	}
@@ -0,0 +1,43 @@
+package com.devsuperior.dscommerce.services;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+public class CategoryListJson {
+
+	private final byte[] json;
+	private final String eTag;
+	private final String shortHash;
+
+	public CategoryListJson(byte[] json) {
+		byte[] digest = sha256(json);
+		this.json = json;
+		this.eTag = "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, 16)) + "\"";
+		this.shortHash = HexFormat.of().formatHex(digest, 0, 4);
+	}
+
+	public byte[] getJson() {
+		return json;
+	}
+
+	public String getETag() {
+		return eTag;
+	}
+
+	/**
+	 * First 32 bits of the content hash, in hex, for embedding in other ETags.
+	 */
+	public String getShortHash() {
+		return shortHash;
+	}
+
+	private static byte[] sha256(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
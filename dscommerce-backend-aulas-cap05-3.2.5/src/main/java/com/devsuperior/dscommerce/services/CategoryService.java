@@ -1,24 +1,112 @@
 package com.devsuperior.dscommerce.services;
 
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.devsuperior.dscommerce.dto.CategoryDTO;
-import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.CategoryChangedEvent;
 import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.observation.annotation.Observed;
 
 @Service
+@Observed(name = "dscommerce.service")
 public class CategoryService {
 
     @Autowired
     private CategoryRepository repository;
 
-    @Transactional(readOnly = true)
-    public List<CategoryDTO> findAll() {
-        List<Category> result = repository.findAll();
-        return result.stream().map(x -> new CategoryDTO(x)).toList();
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${categories.json-ttl}")
+    private Long jsonTtlSeconds;
+
+    // Held across the rebuild and by clearJson(). Misses after an invalidation then run one query
+    // instead of one each, and a rebuild that read the list before a commit cannot store it after
+    // that commit's clearJson(). Not synchronized: on Java 21 a virtual thread blocked on JDBC inside
+    // a synchronized block keeps its carrier thread.
+    private final ReentrantLock jsonLock = new ReentrantLock();
+
+    private volatile CachedJson json;
+
+    /**
+     * The category list already serialized, rebuilt after a category changes through JPA or once
+     * categories.json-ttl has passed, which bounds staleness from writes this instance does not see.
+     */
+    public CategoryListJson findAllJson() {
+        CachedJson current = json;
+        if (current != null && !current.isExpired()) {
+            return current.value;
+        }
+        jsonLock.lock();
+        try {
+            if (json == null || json.isExpired()) {
+                List<CategoryDTO> list = repository.findAll().stream().map(x -> new CategoryDTO(x)).toList();
+                try {
+                    CategoryListJson value = new CategoryListJson(objectMapper.writeValueAsBytes(list));
+                    json = new CachedJson(value, System.nanoTime() + jsonTtlSeconds * 1_000_000_000);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return json.value;
+        }
+        finally {
+            jsonLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidateJson();
+    }
+
+    public void invalidateJson() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearJson();
+                }
+            });
+        }
+        else {
+            clearJson();
+        }
+    }
+
+    private void clearJson() {
+        jsonLock.lock();
+        try {
+            json = null;
+        }
+        finally {
+            jsonLock.unlock();
+        }
+    }
+
+    private static final class CachedJson {
+
+        private final CategoryListJson value;
+        private final long expiresAtNanos;
+
+        private CachedJson(CategoryListJson value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos >= 0;
+        }
     }
 }
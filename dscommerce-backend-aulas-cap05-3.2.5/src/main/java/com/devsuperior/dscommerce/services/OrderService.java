@@ -1,11 +1,25 @@
 package com.devsuperior.dscommerce.services;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.devsuperior.dscommerce.dto.OrderBatchResultDTO;
 import com.devsuperior.dscommerce.dto.OrderDTO;
 import com.devsuperior.dscommerce.dto.OrderItemDTO;
 import com.devsuperior.dscommerce.entities.Order;
@@ -13,12 +27,18 @@ import com.devsuperior.dscommerce.entities.OrderItem;
 import com.devsuperior.dscommerce.entities.OrderStatus;
 import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.entities.User;
-import com.devsuperior.dscommerce.repositories.OrderItemRepository;
 import com.devsuperior.dscommerce.repositories.OrderRepository;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.BatchTooLargeException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import io.micrometer.observation.annotation.Observed;
+
 @Service
+@Observed(name = "dscommerce.service")
 public class OrderService {
 
     @Autowired
@@ -27,18 +47,24 @@ public class OrderService {
     @Autowired
     private ProductRepository productRepository;
     
-    @Autowired
-    private OrderItemRepository orderItemRepository;
-    
     @Autowired
     private UserService userService;
     
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${orders.batch.max-size}")
+    private Integer maxBatchSize;
+
     @Transactional(readOnly = true)
     public OrderDTO findById(Long id) {
-        Order order = repository.findById(id).orElseThrow(
+        Order order = repository.searchWithItemsById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Recurso não encontrado"));
         authService.validateSelfOrAdmin(order.getClient().getId());
         return new OrderDTO(order);
@@ -55,15 +81,130 @@ public class OrderService {
     	User user = userService.authenticated();
     	order.setClient(user);
     	
+    	Set<Long> productIds = new HashSet<>();
+    	for (OrderItemDTO itemDto : dto.getItems()) {
+    		productIds.add(itemDto.getProductId());
+    	}
+    	Map<Long, Product> products = findProducts(productIds);
+    	
     	for (OrderItemDTO itemDto : dto.getItems()) {
-    		Product product = productRepository.getReferenceById(itemDto.getProductId());
+    		Product product = products.get(itemDto.getProductId());
+    		if (product == null) {
+    			throw new ResourceNotFoundException("Produto não encontrado: " + itemDto.getProductId());
+    		}
     		OrderItem item = new OrderItem(order, product, itemDto.getQuantity(), product.getPrice());
     		order.getItems().add(item);
     	}
     	
     	repository.save(order);
-    	orderItemRepository.saveAll(order.getItems());
     	
     	return new OrderDTO(order);
 	}
+
+    /**
+     * Inserts the batch's valid orders in one transaction and reports each element's outcome
+     * by index. Invalid elements fail on their own. If the transaction fails, each order is
+     * retried in its own transaction, so a database error only fails the order that caused it.
+     */
+    public List<OrderBatchResultDTO> insertAll(List<OrderDTO> dtos) {
+        if (dtos.size() > maxBatchSize) {
+            throw new BatchTooLargeException("Lote excede o máximo de " + maxBatchSize + " pedidos");
+        }
+
+        User user = userService.authenticated();
+
+        Set<Long> productIds = new HashSet<>();
+        for (OrderDTO dto : dtos) {
+            if (dto != null) {
+                for (OrderItemDTO itemDto : dto.getItems()) {
+                    if (itemDto != null && itemDto.getProductId() != null) {
+                        productIds.add(itemDto.getProductId());
+                    }
+                }
+            }
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // a write transaction, so the lookup reads the primary: a product just created
+        // there may not have reached the replica yet
+        Map<Long, Product> products = productIds.isEmpty() ? Map.of() : transaction.execute(status -> findProducts(productIds));
+
+        OrderBatchResultDTO[] results = new OrderBatchResultDTO[dtos.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            String error = validate(dtos.get(i), products);
+            if (error != null) {
+                results[i] = OrderBatchResultDTO.failed(i, error);
+            }
+            else {
+                valid.add(i);
+            }
+        }
+
+        try {
+            List<Order> orders = transaction.execute(status -> {
+                List<Order> list = new ArrayList<>();
+                for (Integer i : valid) {
+                    list.add(newOrder(dtos.get(i), user, products));
+                }
+                repository.saveAll(list);
+                return list;
+            });
+            for (int k = 0; k < valid.size(); k++) {
+                results[valid.get(k)] = OrderBatchResultDTO.created(valid.get(k), new OrderDTO(orders.get(k)));
+            }
+        }
+        catch (DataAccessException e) {
+            for (Integer i : valid) {
+                try {
+                    Order order = transaction.execute(status -> repository.save(newOrder(dtos.get(i), user, products)));
+                    results[i] = OrderBatchResultDTO.created(i, new OrderDTO(order));
+                }
+                catch (DataAccessException ex) {
+                    results[i] = OrderBatchResultDTO.failed(i, "Falha ao gravar o pedido");
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private Order newOrder(OrderDTO dto, User user, Map<Long, Product> products) {
+        Order order = new Order();
+        order.setMoment(Instant.now());
+        order.setStatus(OrderStatus.WAITING_PAYMENT);
+        order.setClient(user);
+        for (OrderItemDTO itemDto : dto.getItems()) {
+            Product product = products.get(itemDto.getProductId());
+            order.getItems().add(new OrderItem(order, product, itemDto.getQuantity(), product.getPrice()));
+        }
+        return order;
+    }
+
+    private Map<Long, Product> findProducts(Collection<Long> ids) {
+        return productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private String validate(OrderDTO dto, Map<Long, Product> products) {
+        if (dto == null) {
+            return "Pedido inválido";
+        }
+        Set<ConstraintViolation<OrderDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<OrderDTO> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        Set<Long> seen = new HashSet<>();
+        for (OrderItemDTO itemDto : dto.getItems()) {
+            if (itemDto == null) {
+                return "Item inválido";
+            }
+            if (!products.containsKey(itemDto.getProductId())) {
+                return "Produto não encontrado: " + itemDto.getProductId();
+            }
+            if (!seen.add(itemDto.getProductId())) {
+                return "Produto repetido no pedido: " + itemDto.getProductId();
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,67 @@
+package com.devsuperior.dscommerce.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.devsuperior.dscommerce.services.exceptions.InvalidCursorException;
+
+/**
+ * Opaque position for keyset pagination of products: the sort key of the
+ * last row returned plus its id as tie breaker, encoded as URL-safe Base64.
+ */
+public class ProductCursor {
+
+    public static final String SORT_ID = "id";
+    public static final String SORT_NAME = "name";
+
+    private static final String SEPARATOR = "|";
+
+    private final String sort;
+    private final Long id;
+    private final String name;
+
+    public ProductCursor(String sort, Long id, String name) {
+        if (!SORT_ID.equals(sort) && !SORT_NAME.equals(sort)) {
+            throw new InvalidCursorException("Ordenação não suportada: " + sort);
+        }
+        this.sort = sort;
+        this.id = id;
+        this.name = name;
+    }
+
+    public static ProductCursor first(String sort) {
+        return new ProductCursor(sort, 0L, "");
+    }
+
+    public static ProductCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            return new ProductCursor(parts[0], Long.valueOf(parts[1]), parts.length > 2 ? parts[2] : "");
+        }
+        catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Cursor inválido");
+        }
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + id + (isByName() ? SEPARATOR + name : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isByName() {
+        return SORT_NAME.equals(sort);
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
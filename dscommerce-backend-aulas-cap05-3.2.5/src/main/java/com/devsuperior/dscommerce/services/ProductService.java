@@ -1,30 +1,47 @@
 package com.devsuperior.dscommerce.services;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.ProductCursorPageDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
 import com.devsuperior.dscommerce.services.exceptions.DatabaseException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscommerce.services.search.ProductSearchIndex;
 
 import jakarta.persistence.EntityNotFoundException;
 
+import io.micrometer.observation.annotation.Observed;
+
 @Service
+@Observed(name = "dscommerce.service")
 public class ProductService {
 
     @Autowired
     private ProductRepository repository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private CategoryService categoryService;
+
     @Transactional(readOnly = true)
     public ProductDTO findById(Long id) {
         Product product = repository.findById(id).orElseThrow(
@@ -32,10 +49,72 @@ public class ProductService {
         return new ProductDTO(product);
     }
 
+    /**
+     * Current version of the product, from a version-only lookup. Not read-only, so it
+     * is read from the primary.
+     */
+    public Long findVersionById(Long id) {
+        return repository.findVersionById(id).orElseThrow(
+                () -> new ResourceNotFoundException("Recurso não encontrado"));
+    }
+
+    /**
+     * ETag of a product version. Category names are part of the representation, so a
+     * hash of the category list is folded in. Not read-only: a miss on the category list
+     * must be rebuilt from the primary, not the replica.
+     */
+    public String eTag(Long id, Long version) {
+        return "\"" + id + "-" + version + "-" + categoryService.findAllJson().getShortHash() + "\"";
+    }
+
     @Transactional(readOnly = true)
     public Page<ProductMinDTO> findAll(String name, Pageable pageable) {
-        Page<Product> result = repository.searchByName(name, pageable);
-        return result.map(x -> new ProductMinDTO(x));
+        String term = ProductSearchIndex.fold(name);
+        if (term.isEmpty()) {
+            return repository.searchByName("", pageable);
+        }
+        Optional<Set<Long>> ids = searchIndex.candidates(term);
+        if (ids.isEmpty()) {
+            return repository.searchByText(term, pageable);
+        }
+        if (ids.get().isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return repository.searchByIdsAndText(ids.get(), term, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductCursorPageDTO findAllAfter(String name, String after, String sort, int size) {
+        ProductCursor cursor = (after == null || after.isBlank()) ? ProductCursor.first(sort) : ProductCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size + 1);
+        String term = ProductSearchIndex.fold(name);
+        Optional<Set<Long>> ids = term.isEmpty() ? Optional.empty() : searchIndex.candidates(term);
+        List<ProductMinDTO> result;
+        if (term.isEmpty()) {
+            result = cursor.isByName()
+                    ? repository.searchAfterName(cursor.getName(), cursor.getId(), limit)
+                    : repository.searchAfterId(cursor.getId(), limit);
+        }
+        else if (ids.isEmpty()) {
+            result = cursor.isByName()
+                    ? repository.searchByTextAfterName(term, cursor.getName(), cursor.getId(), limit)
+                    : repository.searchByTextAfterId(term, cursor.getId(), limit);
+        }
+        else if (ids.get().isEmpty()) {
+            return new ProductCursorPageDTO(List.of(), null);
+        }
+        else {
+            result = cursor.isByName()
+                    ? repository.searchByIdsAndTextAfterName(ids.get(), term, cursor.getName(), cursor.getId(), limit)
+                    : repository.searchByIdsAndTextAfterId(ids.get(), term, cursor.getId(), limit);
+        }
+        String nextCursor = null;
+        if (result.size() > size) {
+            result = result.subList(0, size);
+            ProductMinDTO last = result.get(size - 1);
+            nextCursor = new ProductCursor(cursor.getSort(), last.getId(), last.getName()).encode();
+        }
+        return new ProductCursorPageDTO(result, nextCursor);
     }
 
     @Transactional
@@ -43,6 +122,7 @@ public class ProductService {
         Product entity = new Product();
         copyDtoToEntity(dto, entity);
         entity = repository.save(entity);
+        searchIndex.index(entity);
         return new ProductDTO(entity);
     }
 
@@ -50,8 +130,13 @@ public class ProductService {
     public ProductDTO update(Long id, ProductDTO dto) {
         try {
             Product entity = repository.getReferenceById(id);
+            if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+                throw new ConflictException("Recurso alterado por outra requisição");
+            }
             copyDtoToEntity(dto, entity);
-            entity = repository.save(entity);
+            // flush now so the returned version is the one the next update must send
+            entity = repository.saveAndFlush(entity);
+            searchIndex.index(entity);
             return new ProductDTO(entity);
         }
         catch (EntityNotFoundException e) {
@@ -65,7 +150,8 @@ public class ProductService {
     		throw new ResourceNotFoundException("Recurso não encontrado");
     	}
     	try {
-            repository.deleteById(id);    		
+            repository.deleteById(id);
+            searchIndex.remove(id);
     	}
         catch (DataIntegrityViolationException e) {
             throw new DatabaseException("Falha de integridade referencial");
@@ -80,9 +166,9 @@ public class ProductService {
         
         entity.getCategories().clear();
         for (CategoryDTO catDto : dto.getCategories()) {
-        	Category cat = new Category();
-        	cat.setId(catDto.getId());
-        	entity.getCategories().add(cat);
+            Category cat = new Category();
+            cat.setId(catDto.getId());
+            entity.getCategories().add(cat);
         }
     }
 }
@@ -4,23 +4,30 @@ import java.util.List;
 
 import com.devsuperior.dscommerce.util.CustomUserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscommerce.config.CacheConfig;
 import com.devsuperior.dscommerce.dto.UserDTO;
 import com.devsuperior.dscommerce.entities.Role;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.projections.UserDetailsProjection;
 import com.devsuperior.dscommerce.repositories.UserRepository;
 
+import io.micrometer.observation.annotation.Observed;
+
 @Service
-public class UserService implements UserDetailsService {
+@Observed(name = "dscommerce.service")
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository repository;
@@ -29,6 +36,7 @@ public class UserService implements UserDetailsService {
     private CustomUserUtil customUserUtil;
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#username.toLowerCase()")
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
         List<UserDetailsProjection> result = repository.searchUserAndRolesByEmail(username);
@@ -37,6 +45,7 @@ public class UserService implements UserDetailsService {
         }
 
         User user = new User();
+        user.setId(result.get(0).getUserId());
         user.setEmail(result.get(0).getUsername());
         user.setPassword(result.get(0).getPassword());
         for (UserDetailsProjection projection : result) {
@@ -46,8 +55,39 @@ public class UserService implements UserDetailsService {
         return user;
     }
 
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#user.username.toLowerCase()")
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = repository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Email not found"));
+        entity.setPassword(newPassword);
+        return entity;
+    }
+
+    /**
+     * Must be called after a user's password or roles change, otherwise logins keep
+     * seeing the old values until the cache entry expires.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#email.toLowerCase()")
+    public void evictUserDetails(String email) {
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
+    public void evictAllUserDetails() {
+    }
+
+    /**
+     * The logged user, looked up by the token's user id claim when present (tokens issued
+     * before the claim existed only carry the email). Always loaded, not a reference:
+     * callers read its fields, and a deleted user must fail here.
+     */
     protected User authenticated() {
         try {
+            Long userId = customUserUtil.getLoggedUserId();
+            if (userId != null) {
+                return repository.findById(userId).get();
+            }
             String userName = customUserUtil.getLoggedUserName();
             return repository.findByEmail(userName).get();
         } catch (Exception e) {
@@ -0,0 +1,9 @@
+package com.devsuperior.dscommerce.services.exceptions;
+
+@SuppressWarnings("serial")
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,310 @@
+package com.devsuperior.dscommerce.services.perf;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscommerce.services.search.ProductSearchIndex;
+
+/**
+ * Fills the perf profile's database with synthetic catalog, users and orders at the
+ * sizes given by {@code perf.data.*}. Runs once: when the database already holds more
+ * products than the seed data it leaves it alone, so a file database is generated on
+ * the first start and reused afterwards. Product and client popularity in orders
+ * follow {@link SkewedSampler}; low ids are the hot ones. Generated users log in with
+ * the seed password, as {@code user<n>@perf.test}.
+ */
+@Component
+@Profile("perf")
+public class PerfDataGenerator implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PerfDataGenerator.class);
+
+    // ids, emails and password used by import.sql; generated rows start after them
+    private static final long SEED_CATEGORIES = 3;
+    private static final long SEED_PRODUCTS = 25;
+    private static final long SEED_USERS = 2;
+    private static final long SEED_ORDERS = 3;
+    private static final long CLIENT_ROLE_ID = 1;
+    private static final String SEED_PASSWORD_HASH = "$2a$10$N7SkKCa3r17ga.i.dF9iy.BFUBL2n3b6Z1CWSZWi/qy7ABq/E6VpO";
+
+    private static final String[] BRANDS = {"Acme", "Nova", "Orion", "Vertex", "Zenith", "Atlas", "Pixel", "Lumen",
+            "Terra", "Aurora", "Delta", "Quantum"};
+    private static final String[] KINDS = {"Notebook", "Smart TV", "Mouse", "Teclado", "Monitor", "Livro", "Headset",
+            "Cadeira", "Smartphone", "Tablet", "Câmera", "Impressora", "Roteador", "Console", "Caixa de Som"};
+    private static final String[] EDITIONS = {"Pro", "Max", "Lite", "Plus", "Ultra", "Mini", "Gamer", "Slim", "Eletrônico",
+            "Edição Especial"};
+    private static final String[] FIRST_NAMES = {"Ana", "Bruno", "Carla", "Diego", "Elisa", "Felipe", "Gabriela", "Hugo",
+            "Isabela", "João", "Larissa", "Marcos"};
+    private static final String[] LAST_NAMES = {"Silva", "Souza", "Oliveira", "Santos", "Lima", "Costa", "Pereira",
+            "Almeida", "Ribeiro", "Gomes"};
+
+    @Value("${perf.data.categories}")
+    private int categories;
+
+    @Value("${perf.data.products}")
+    private long products;
+
+    @Value("${perf.data.users}")
+    private long users;
+
+    @Value("${perf.data.orders}")
+    private long orders;
+
+    @Value("${perf.data.max-items-per-order}")
+    private int maxItemsPerOrder;
+
+    @Value("${perf.data.skew}")
+    private double skew;
+
+    @Value("${perf.data.seed}")
+    private long seed;
+
+    @Value("${perf.data.batch-size}")
+    private int batchSize;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (count("tb_role") == 0) {
+            // ddl-auto=update does not run import.sql
+            new ResourceDatabasePopulator(new ClassPathResource("import.sql")).execute(dataSource);
+        }
+        if (isComplete()) {
+            LOG.info("Perf data already present ({} products), skipping generation", count("tb_product"));
+            return;
+        }
+        if (count("tb_category") > SEED_CATEGORIES) {
+            LOG.warn("Perf data incomplete or generated with different perf.data.* values, regenerating");
+            deleteGenerated();
+        }
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        insertCategories();
+        insertProducts(random.split());
+        insertUsers(random.split());
+        insertOrders(random.split());
+        restartSequences();
+        markComplete();
+        // the index was built at startup, before these rows existed
+        searchIndex.rebuild();
+        LOG.info("Generated {} products, {} users and {} orders in {} s", products, users, orders,
+                (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    /**
+     * Every batch commits on its own, so an interrupted run leaves a prefix of the data behind. The marker row is
+     * written only after the last batch and the sequence restart, and records the settings it was generated with.
+     */
+    private boolean isComplete() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS perf_data_marker (settings VARCHAR(255) NOT NULL)");
+        List<String> markers = jdbcTemplate.queryForList("SELECT settings FROM perf_data_marker", String.class);
+        return markers.equals(List.of(settings()));
+    }
+
+    private void markComplete() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("DELETE FROM perf_data_marker");
+            jdbcTemplate.update("INSERT INTO perf_data_marker (settings) VALUES (?)", settings());
+        });
+    }
+
+    private String settings() {
+        return String.join(",", String.valueOf(categories), String.valueOf(products), String.valueOf(users),
+                String.valueOf(orders), String.valueOf(maxItemsPerOrder), String.valueOf(skew), String.valueOf(seed));
+    }
+
+    private void deleteGenerated() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("DELETE FROM perf_data_marker");
+            jdbcTemplate.update("DELETE FROM tb_payment WHERE order_id > ?", SEED_ORDERS);
+            jdbcTemplate.update("DELETE FROM tb_order_item WHERE order_id > ? OR product_id > ?", SEED_ORDERS, SEED_PRODUCTS);
+            jdbcTemplate.update("DELETE FROM tb_order WHERE id > ?", SEED_ORDERS);
+            jdbcTemplate.update("DELETE FROM tb_user_role WHERE user_id > ?", SEED_USERS);
+            jdbcTemplate.update("DELETE FROM tb_user WHERE id > ?", SEED_USERS);
+            jdbcTemplate.update("DELETE FROM tb_product_category WHERE product_id > ? OR category_id > ?", SEED_PRODUCTS, SEED_CATEGORIES);
+            jdbcTemplate.update("DELETE FROM tb_product WHERE id > ?", SEED_PRODUCTS);
+            jdbcTemplate.update("DELETE FROM tb_category WHERE id > ?", SEED_CATEGORIES);
+        });
+    }
+
+    private void insertCategories() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = SEED_CATEGORIES + 1; id <= SEED_CATEGORIES + categories; id++) {
+            rows.add(new Object[] {id, "Categoria " + id});
+        }
+        batch("INSERT INTO tb_category (id, name) VALUES (?, ?)", rows);
+    }
+
+    private void insertProducts(SplittableRandom random) {
+        long totalCategories = SEED_CATEGORIES + categories;
+        List<Object[]> productRows = new ArrayList<>(batchSize);
+        List<Object[]> categoryRows = new ArrayList<>(batchSize * 2);
+        for (long i = 1; i <= products; i++) {
+            long id = SEED_PRODUCTS + i;
+            String kind = pick(KINDS, random);
+            String name = kind + " " + pick(BRANDS, random) + " " + pick(EDITIONS, random) + " " + (100 + random.nextInt(9900));
+            double price = Math.round(random.nextDouble(10, 5000) * 100) / 100.0;
+            String description = kind + " " + pick(EDITIONS, random) + " com garantia de " + (1 + random.nextInt(3)) + " anos";
+            productRows.add(new Object[] {id, 0L, name, price, description,
+                    "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/" + (1 + id % 25) + "-big.jpg"});
+            long first = 1 + random.nextLong(totalCategories);
+            categoryRows.add(new Object[] {id, first});
+            if (random.nextInt(4) == 0) {
+                long second = 1 + (first % totalCategories);
+                categoryRows.add(new Object[] {id, second});
+            }
+            if (productRows.size() == batchSize || i == products) {
+                List<Object[]> productChunk = productRows;
+                List<Object[]> categoryChunk = categoryRows;
+                transactionTemplate.executeWithoutResult(tx -> {
+                    batch("INSERT INTO tb_product (id, version, name, price, description, img_url) VALUES (?, ?, ?, ?, ?, ?)", productChunk);
+                    batch("INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)", categoryChunk);
+                });
+                productRows = new ArrayList<>(batchSize);
+                categoryRows = new ArrayList<>(batchSize * 2);
+                progress("products", i, products);
+            }
+        }
+    }
+
+    private void insertUsers(SplittableRandom random) {
+        List<Object[]> userRows = new ArrayList<>(batchSize);
+        List<Object[]> roleRows = new ArrayList<>(batchSize);
+        for (long i = 1; i <= users; i++) {
+            long id = SEED_USERS + i;
+            String name = pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random);
+            String phone = String.valueOf(900_000_000 + random.nextInt(100_000_000));
+            LocalDate birthDate = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(365 * 55));
+            userRows.add(new Object[] {id, name, email(i), phone, SEED_PASSWORD_HASH, birthDate});
+            roleRows.add(new Object[] {id, CLIENT_ROLE_ID});
+            if (userRows.size() == batchSize || i == users) {
+                List<Object[]> userChunk = userRows;
+                List<Object[]> roleChunk = roleRows;
+                transactionTemplate.executeWithoutResult(tx -> {
+                    batch("INSERT INTO tb_user (id, name, email, phone, password, birth_date) VALUES (?, ?, ?, ?, ?, ?)", userChunk);
+                    batch("INSERT INTO tb_user_role (user_id, role_id) VALUES (?, ?)", roleChunk);
+                });
+                userRows = new ArrayList<>(batchSize);
+                roleRows = new ArrayList<>(batchSize);
+                progress("users", i, users);
+            }
+        }
+    }
+
+    private void insertOrders(SplittableRandom random) {
+        SkewedSampler productSampler = new SkewedSampler(SEED_PRODUCTS + products, skew);
+        SkewedSampler clientSampler = new SkewedSampler(SEED_USERS + users, skew);
+        Instant end = Instant.now();
+        long window = 2L * 365 * 24 * 3600;
+        List<Object[]> orderRows = new ArrayList<>(batchSize);
+        List<Object[]> itemRows = new ArrayList<>(batchSize * maxItemsPerOrder);
+        List<Object[]> paymentRows = new ArrayList<>(batchSize);
+        for (long i = 1; i <= orders; i++) {
+            long id = SEED_ORDERS + i;
+            Instant moment = end.minusSeconds(random.nextLong(window));
+            int status = random.nextInt(5);
+            orderRows.add(new Object[] {id, utc(moment), status, 1 + clientSampler.next(random)});
+            Set<Long> productIds = new HashSet<>();
+            int items = (int) Math.min(1 + random.nextInt(maxItemsPerOrder), SEED_PRODUCTS + products);
+            while (productIds.size() < items) {
+                productIds.add(1 + productSampler.next(random));
+            }
+            for (Long productId : productIds) {
+                // the price paid is not joined back to the product, so any plausible value will do
+                itemRows.add(new Object[] {id, productId, 1 + random.nextInt(3), Math.round(random.nextDouble(10, 5000) * 100) / 100.0});
+            }
+            // WAITING_PAYMENT (0) and CANCELED (4) orders have no payment
+            if (status > 0 && status < 4) {
+                paymentRows.add(new Object[] {id, utc(moment.plusSeconds(random.nextInt(48 * 3600)))});
+            }
+            if (orderRows.size() == batchSize || i == orders) {
+                List<Object[]> orderChunk = orderRows;
+                List<Object[]> itemChunk = itemRows;
+                List<Object[]> paymentChunk = paymentRows;
+                transactionTemplate.executeWithoutResult(tx -> {
+                    batch("INSERT INTO tb_order (id, moment, status, client_id) VALUES (?, ?, ?, ?)", orderChunk);
+                    batch("INSERT INTO tb_order_item (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)", itemChunk);
+                    batch("INSERT INTO tb_payment (order_id, moment) VALUES (?, ?)", paymentChunk);
+                });
+                orderRows = new ArrayList<>(batchSize);
+                itemRows = new ArrayList<>(batchSize * maxItemsPerOrder);
+                paymentRows = new ArrayList<>(batchSize);
+                progress("orders", i, orders);
+            }
+        }
+    }
+
+    private void restartSequences() {
+        restart("tb_category_seq", "tb_category");
+        restart("tb_product_seq", "tb_product");
+        restart("tb_user_seq", "tb_user");
+        restart("tb_order_seq", "tb_order");
+    }
+
+    private void restart(String sequence, String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (max + 1));
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private void progress(String what, long done, long total) {
+        long step = Math.max(batchSize, total / 10);
+        if (done % step < batchSize || done == total) {
+            LOG.info("Generated {}/{} {}", done, total, what);
+        }
+    }
+
+    public static String email(long n) {
+        return "user" + n + "@perf.test";
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,38 @@
+package com.devsuperior.dscommerce.services.perf;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks ranks in {@code [0, size)} with a Zipf-like skew: rank r is drawn with weight
+ * about (r + 1)^-skew, so skew 0 is uniform and higher values concentrate traffic on
+ * the first ranks. Uses the closed-form inverse of the continuous power law, so a
+ * draw is O(1) whatever the size.
+ */
+public class SkewedSampler {
+
+    private final long size;
+    private final double skew;
+    private final double span;
+
+    public SkewedSampler(long size, double skew) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew cannot be negative");
+        }
+        this.size = size;
+        this.skew = skew;
+        this.span = isLogUniform() ? Math.log(size + 1.0) : Math.pow(size + 1.0, 1 - skew) - 1;
+    }
+
+    public long next(RandomGenerator random) {
+        double u = random.nextDouble();
+        double x = isLogUniform() ? Math.exp(u * span) : Math.pow(1 + u * span, 1 / (1 - skew));
+        return Math.min(size - 1, Math.max(0, (long) x - 1));
+    }
+
+    private boolean isLogUniform() {
+        return Math.abs(skew - 1) < 1e-9;
+    }
+}
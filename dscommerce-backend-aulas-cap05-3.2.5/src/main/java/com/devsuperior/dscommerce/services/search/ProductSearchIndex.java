@@ -0,0 +1,337 @@
+package com.devsuperior.dscommerce.services.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.ProductTextProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+
+/**
+ * In-memory inverted index of trigrams over product name and description.
+ * Text is case and accent folded, so "eletronico" matches "Eletrônico".
+ * Only the postings are kept: a search returns the products holding every
+ * trigram of the term, and the caller confirms the substring match in SQL
+ * ({@link ProductRepository#TEXT_MATCHES}). Terms shorter than a trigram, and
+ * terms matching more than {@code search.max-candidates} products, are not
+ * narrowed, so the query never binds an unbounded id list.
+ * Each posting list is a sorted {@code long[]}, 8 bytes per product and trigram; the
+ * generated perf data has about 50 trigrams per product, about 0.4 KB of heap each,
+ * or 400 MB for a million products. A rebuild briefly holds the old and the new index,
+ * so the heap needs room for twice that.
+ * The index is built before the web server starts, so searches never see it
+ * empty or half built. Writes through {@link #index} and {@link #remove} on this node
+ * apply at commit; writes made elsewhere (other instances, plain SQL, imports) show up
+ * after the next rebuild, every {@code search.index.rebuild-interval} seconds.
+ */
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int GRAM_SIZE = 3;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // the arrays are never changed in place: writers replace them, so searches read them unlocked
+    private volatile Map<String, long[]> postings = new ConcurrentHashMap<>();
+    private volatile int size;
+    // writers wait here while a rebuild reads the product table; a ReentrantLock does not
+    // pin the carrier of a virtual thread blocked on it
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Value("${search.max-candidates}")
+    private Integer maxCandidates;
+
+    @Value("${search.index.rebuild-interval}")
+    private Long rebuildIntervalSeconds;
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+        if (rebuildIntervalSeconds > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("search-index").daemon().factory());
+            executor.scheduleWithFixedDelay(this::refresh, rebuildIntervalSeconds, rebuildIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // an exception would cancel the schedule; the current index stays in use until the next run
+    void refresh() {
+        try {
+            rebuild();
+        }
+        catch (RuntimeException e) {
+            LOG.warn("Product search index rebuild failed, keeping the current index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the products in id order, a batch at a time, and swaps the new postings in at
+     * the end, so searches keep using the old ones meanwhile.
+     */
+    public void rebuild() {
+        lock.lock();
+        try {
+            Map<String, PostingBuilder> builders = new HashMap<>();
+            int count = 0;
+            long afterId = 0L;
+            List<ProductTextProjection> batch;
+            do {
+                batch = repository.searchTextAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (ProductTextProjection product : batch) {
+                    // ids arrive in ascending order, so appending keeps every list sorted
+                    Set<String> grams = grams(product.getName(), product.getDescription());
+                    for (String gram : grams) {
+                        builders.computeIfAbsent(gram, k -> new PostingBuilder()).add(product.getId());
+                    }
+                    if (!grams.isEmpty()) {
+                        count++;
+                    }
+                    afterId = product.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            Map<String, long[]> newPostings = new ConcurrentHashMap<>(builders.size());
+            builders.forEach((gram, builder) -> newPostings.put(gram, builder.toArray()));
+            postings = newPostings;
+            size = count;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ids of the products that contain every trigram of the folded term, a superset of the
+     * products that contain the term. Empty when the index cannot narrow the search: the term
+     * is shorter than a trigram or more than {@code search.max-candidates} products match.
+     */
+    public Optional<Set<Long>> candidates(String term) {
+        if (term.length() < GRAM_SIZE) {
+            return Optional.empty();
+        }
+        Map<String, long[]> current = postings;
+        List<long[]> lists = new ArrayList<>();
+        for (String gram : grams(term)) {
+            long[] ids = current.get(gram);
+            if (ids == null) {
+                return Optional.of(Set.of());
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.length));
+        long[] smallest = lists.get(0);
+        if (smallest.length > maxCandidates) {
+            return Optional.empty();
+        }
+        Set<Long> result = new HashSet<>();
+        for (long id : smallest) {
+            if (containedInAll(lists, id)) {
+                result.add(id);
+            }
+        }
+        return Optional.of(result);
+    }
+
+    public void index(Product product) {
+        long id = product.getId();
+        String name = product.getName();
+        String description = product.getDescription();
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                // searches do not take the lock: adding the new trigrams before dropping the
+                // stale ones keeps the product visible under every trigram it has both before
+                // and after, so an update of another field never hides it
+                Set<String> newGrams = grams(name, description);
+                Set<String> oldGrams = gramsOf(id);
+                for (String gram : newGrams) {
+                    if (!oldGrams.contains(gram)) {
+                        postings.compute(gram, (k, ids) -> with(ids, id));
+                    }
+                }
+                for (String gram : oldGrams) {
+                    if (!newGrams.contains(gram)) {
+                        postings.computeIfPresent(gram, (k, ids) -> without(ids, id));
+                    }
+                }
+                if (oldGrams.isEmpty() != newGrams.isEmpty()) {
+                    size += newGrams.isEmpty() ? -1 : 1;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public void remove(Long id) {
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                Set<String> oldGrams = gramsOf(id);
+                for (String gram : oldGrams) {
+                    postings.computeIfPresent(gram, (k, ids) -> without(ids, id));
+                }
+                if (!oldGrams.isEmpty()) {
+                    size--;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Products with at least one indexed trigram.
+     */
+    public int size() {
+        return size;
+    }
+
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        normalized = DIACRITICS.matcher(normalized).replaceAll("");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        return normalized.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // without the product's old text, every posting list is searched; writes are rare
+    private Set<String> gramsOf(long id) {
+        Set<String> result = new HashSet<>();
+        postings.forEach((gram, ids) -> {
+            if (Arrays.binarySearch(ids, id) >= 0) {
+                result.add(gram);
+            }
+        });
+        return result;
+    }
+
+    private static boolean containedInAll(List<long[]> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (Arrays.binarySearch(lists.get(i), id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] with(long[] ids, long id) {
+        if (ids == null) {
+            return new long[] {id};
+        }
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return ids;
+        }
+        int at = -pos - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, at);
+        result[at] = id;
+        System.arraycopy(ids, at, result, at + 1, ids.length - at);
+        return result;
+    }
+
+    // null drops the trigram from the map
+    private static long[] without(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, pos);
+        System.arraycopy(ids, pos + 1, result, pos, ids.length - pos - 1);
+        return result;
+    }
+
+    // name and description are indexed separately, so no trigram spans both
+    private static Set<String> grams(String name, String description) {
+        Set<String> result = grams(fold(name));
+        result.addAll(grams(fold(description)));
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            result.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return result;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+        else {
+            action.run();
+        }
+    }
+
+    private static final class PostingBuilder {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
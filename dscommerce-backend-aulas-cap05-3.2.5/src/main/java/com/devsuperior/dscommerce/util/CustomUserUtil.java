@@ -1,6 +1,7 @@
 package com.devsuperior.dscommerce.util;
 
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
@@ -8,9 +9,28 @@ import org.springframework.stereotype.Component;
 @Component
 public class CustomUserUtil {
 
+    public static final String USER_ID_CLAIM = "user_id";
+
     public String getLoggedUserName() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         Jwt jwtPrincipal = (Jwt) authentication.getPrincipal();
         return jwtPrincipal.getClaim("username");
     }
+
+    public Long getLoggedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Jwt jwtPrincipal = (Jwt) authentication.getPrincipal();
+        Object userId = jwtPrincipal.getClaims().get(USER_ID_CLAIM);
+        return (userId instanceof Number number) ? number.longValue() : null;
+    }
+
+    public boolean loggedUserHasRole(String roleName) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (authority.getAuthority().equals(roleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
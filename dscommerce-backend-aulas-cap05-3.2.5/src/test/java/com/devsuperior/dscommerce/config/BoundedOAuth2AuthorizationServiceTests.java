@@ -0,0 +1,109 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.util.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedOAuth2AuthorizationServiceTests {
+
+    private RegisteredClient registeredClient;
+    private MutableClock clock;
+    private BoundedOAuth2AuthorizationService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registeredClient = RegisteredClient.withId("1")
+                .clientId("myclientid")
+                .authorizationGrantType(new AuthorizationGrantType("password"))
+                .build();
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        service = new BoundedOAuth2AuthorizationService(4, 1, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    public void findByTokenShouldReturnSavedAuthorization() {
+        OAuth2Authorization authorization = createAuthorization("a1", "token-1");
+        service.save(authorization);
+
+        assertEquals(service.findByToken("token-1", OAuth2TokenType.ACCESS_TOKEN), authorization);
+        assertEquals(service.findByToken("token-1", null), authorization);
+        assertNull(service.findByToken("token-1", OAuth2TokenType.REFRESH_TOKEN));
+        assertEquals(service.findById("a1"), authorization);
+    }
+
+    @Test
+    public void saveShouldEvictOldestAuthorizationWhenFull() {
+        for (int i = 1; i <= 5; i++) {
+            service.save(createAuthorization("a" + i, "token-" + i));
+        }
+
+        assertEquals(service.size(), 4);
+        assertEquals(service.getEvictionCount(), 1L);
+        assertNull(service.findById("a1"));
+        assertNull(service.findByToken("token-1", null));
+        assertNotNull(service.findById("a5"));
+    }
+
+    @Test
+    public void findByIdShouldReturnNullWhenAuthorizationExpired() {
+        service.save(createAuthorization("a1", "token-1"));
+        clock.advance(Duration.ofMinutes(11));
+
+        assertNull(service.findById("a1"));
+        assertEquals(service.size(), 0);
+        assertEquals(service.getEvictionCount(), 1L);
+    }
+
+    @Test
+    public void saveShouldPurgeExpiredAuthorizations() {
+        service.save(createAuthorization("a1", "token-1"));
+        service.save(createAuthorization("a2", "token-2"));
+        clock.advance(Duration.ofMinutes(11));
+        service.save(createAuthorization("a3", "token-3"));
+
+        assertEquals(service.size(), 1);
+    }
+
+    @Test
+    public void removeShouldDropAuthorizationAndTokens() {
+        OAuth2Authorization authorization = createAuthorization("a1", "token-1");
+        service.save(authorization);
+        service.remove(authorization);
+
+        assertNull(service.findById("a1"));
+        assertNull(service.findByToken("token-1", null));
+    }
+
+    @Test
+    public void bindToShouldRegisterSizeAndEvictionMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        service.save(createAuthorization("a1", "token-1"));
+
+        assertEquals(registry.get("oauth2.authorizations.size").gauge().value(), 1.0);
+        assertEquals(registry.get("oauth2.authorizations.evictions").tag("cause", "size").functionCounter().count(), 0.0);
+    }
+
+    private OAuth2Authorization createAuthorization(String id, String tokenValue) {
+        Instant issuedAt = clock.instant();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue,
+                issuedAt, issuedAt.plus(Duration.ofHours(1)));
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(id)
+                .principalName("maria@gmail.com")
+                .authorizationGrantType(new AuthorizationGrantType("password"))
+                .accessToken(accessToken)
+                .build();
+    }
+}
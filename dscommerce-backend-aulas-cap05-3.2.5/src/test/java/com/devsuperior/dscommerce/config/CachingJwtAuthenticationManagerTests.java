@@ -0,0 +1,113 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.util.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CachingJwtAuthenticationManagerTests {
+
+    private AuthenticationManager delegate;
+    private MutableClock clock;
+    private CachingJwtAuthenticationManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        delegate = mock(AuthenticationManager.class);
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        manager = new CachingJwtAuthenticationManager(delegate, 100, Duration.ofHours(1), clock);
+
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            BearerTokenAuthenticationToken bearer = invocation.getArgument(0);
+            if (bearer.getToken().startsWith("bad")) {
+                throw new BadCredentialsException("Invalid token");
+            }
+            clock.advance(Duration.ofMillis(2));
+            Jwt jwt = Jwt.withTokenValue(bearer.getToken())
+                    .header("alg", "RS256")
+                    .claim("username", "maria@gmail.com")
+                    .issuedAt(clock.instant())
+                    .expiresAt(clock.instant().plusSeconds(60))
+                    .build();
+            return new JwtAuthenticationToken(jwt, List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        });
+    }
+
+    @Test
+    public void authenticateShouldCallDelegateOnceWhenTokenIsReused() {
+        Authentication first = manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+        Authentication second = manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+
+        verify(delegate, times(1)).authenticate(any());
+        assertEquals(second.getAuthorities(), first.getAuthorities());
+        assertTrue(second.isAuthenticated());
+    }
+
+    @Test
+    public void authenticateShouldUseDetailsOfCurrentRequestWhenCached() {
+        manager.authenticate(bearer("token-1", "first"));
+        Authentication second = manager.authenticate(bearer("token-1", "second"));
+
+        assertEquals(second.getDetails(), "second");
+    }
+
+    @Test
+    public void authenticateShouldNotCacheRejectedTokens() {
+        assertThrows(BadCredentialsException.class, () -> manager.authenticate(new BearerTokenAuthenticationToken("bad-1")));
+        assertThrows(BadCredentialsException.class, () -> manager.authenticate(new BearerTokenAuthenticationToken("bad-1")));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    public void authenticateShouldVerifyAgainWhenTokenExpired() {
+        manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+        clock.advance(Duration.ofSeconds(61));
+        manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    public void authenticateShouldKeepTokenUntilItExpires() {
+        manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+        clock.advance(Duration.ofSeconds(59));
+        manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    public void bindToShouldReportSavedVerificationTime() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        manager.bindTo(registry);
+
+        manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+        manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+        manager.authenticate(new BearerTokenAuthenticationToken("token-1"));
+
+        assertEquals(registry.get("jwt.verification.count").functionCounter().count(), 1.0);
+        assertEquals(registry.get("jwt.verification.saved").functionCounter().count(), 0.004, 1e-9);
+    }
+
+    private static BearerTokenAuthenticationToken bearer(String token, Object details) {
+        BearerTokenAuthenticationToken bearer = new BearerTokenAuthenticationToken(token);
+        bearer.setDetails(details);
+        return bearer;
+    }
+}
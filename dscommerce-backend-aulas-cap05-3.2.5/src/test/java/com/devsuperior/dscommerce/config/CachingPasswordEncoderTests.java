@@ -0,0 +1,69 @@
+package com.devsuperior.dscommerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingPasswordEncoderTests {
+
+    private BCryptPasswordEncoder delegate;
+    private AtomicLong nanos;
+    private CachingPasswordEncoder encoder;
+    private String encodedPassword;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        delegate = spy(new BCryptPasswordEncoder(4));
+        nanos = new AtomicLong();
+        encoder = new CachingPasswordEncoder(delegate, 100, Duration.ofSeconds(60), nanos::get);
+        encodedPassword = delegate.encode("123456");
+    }
+
+    @Test
+    public void matchesShouldCallDelegateOnceWhenPasswordMatchesRepeatedly() {
+        assertTrue(encoder.matches("123456", encodedPassword));
+        assertTrue(encoder.matches("123456", encodedPassword));
+
+        verify(delegate, times(1)).matches("123456", encodedPassword);
+    }
+
+    @Test
+    public void matchesShouldNotCacheFailedMatches() {
+        assertFalse(encoder.matches("654321", encodedPassword));
+        assertFalse(encoder.matches("654321", encodedPassword));
+
+        verify(delegate, times(2)).matches("654321", encodedPassword);
+    }
+
+    @Test
+    public void matchesShouldNotReuseEntryForAnotherHash() {
+        String otherEncodedPassword = delegate.encode("abcdef");
+
+        assertTrue(encoder.matches("123456", encodedPassword));
+        assertFalse(encoder.matches("123456", otherEncodedPassword));
+    }
+
+    @Test
+    public void matchesShouldCallDelegateAgainWhenEntryExpired() {
+        encoder.matches("123456", encodedPassword);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        encoder.matches("123456", encodedPassword);
+
+        verify(delegate, times(2)).matches("123456", encodedPassword);
+    }
+
+    @Test
+    public void upgradeEncodingShouldBeTrueWhenStoredHashIsWeakerThanDelegate() {
+        CachingPasswordEncoder stronger = new CachingPasswordEncoder(new BCryptPasswordEncoder(5), 100, Duration.ofSeconds(60));
+
+        assertTrue(stronger.upgradeEncoding(encodedPassword));
+        assertFalse(encoder.upgradeEncoding(encodedPassword));
+    }
+}
@@ -0,0 +1,46 @@
+package com.devsuperior.dscommerce.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolConfigTests {
+
+    private HikariDataSource pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:pool-warm-up");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(4);
+        pool.setMinimumIdle(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void warmUpShouldOpenMinimumIdleConnectionsAndReturnThem() throws Exception {
+        int connections = ConnectionPoolConfig.warmUp(pool);
+
+        assertEquals(3, connections);
+        assertTrue(pool.getHikariPoolMXBean().getTotalConnections() >= 3);
+        assertEquals(0, pool.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    @Test
+    public void warmUpShouldFindPoolBehindDataSourceProxy() throws Exception {
+        int connections = ConnectionPoolConfig.warmUp(ProxyDataSourceBuilder.create(pool).build());
+
+        assertEquals(3, connections);
+    }
+}
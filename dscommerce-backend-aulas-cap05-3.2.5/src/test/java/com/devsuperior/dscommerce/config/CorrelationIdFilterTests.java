@@ -0,0 +1,59 @@
+package com.devsuperior.dscommerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CorrelationIdFilterTests {
+
+    private CorrelationIdFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private AtomicReference<String> seenByChain;
+    private FilterChain chain;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new CorrelationIdFilter();
+        request = new MockHttpServletRequest("GET", "/products");
+        response = new MockHttpServletResponse();
+        seenByChain = new AtomicReference<>();
+        chain = (req, res) -> seenByChain.set(MDC.get(CorrelationIdFilter.MDC_KEY));
+    }
+
+    @Test
+    public void doFilterShouldReuseValidIdFromCaller() throws Exception {
+        request.addHeader(CorrelationIdFilter.HEADER, "checkout-42");
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals("checkout-42", seenByChain.get());
+        assertEquals("checkout-42", response.getHeader(CorrelationIdFilter.HEADER));
+    }
+
+    @Test
+    public void doFilterShouldGenerateIdWhenHeaderIsMissingOrInvalid() throws Exception {
+        request.addHeader(CorrelationIdFilter.HEADER, "bad id\r\nX-Injected: 1");
+
+        filter.doFilter(request, response, chain);
+
+        assertNotNull(seenByChain.get());
+        assertTrue(seenByChain.get().matches("[0-9a-f]{16}"));
+        assertEquals(seenByChain.get(), response.getHeader(CorrelationIdFilter.HEADER));
+    }
+
+    @Test
+    public void doFilterShouldClearMdcAfterRequest() throws Exception {
+        filter.doFilter(request, response, chain);
+
+        assertNull(MDC.get(CorrelationIdFilter.MDC_KEY));
+    }
+}
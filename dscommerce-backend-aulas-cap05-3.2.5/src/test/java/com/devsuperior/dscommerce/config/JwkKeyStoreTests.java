@@ -0,0 +1,153 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.util.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwkKeyStoreTests {
+
+    @TempDir
+    private Path dir;
+
+    private Path file;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = dir.resolve("jwks.json");
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    public void constructorShouldCreateKeyFileWhenMissing() {
+        JwkKeyStore store = newStore(SignatureAlgorithm.RS256);
+
+        assertTrue(Files.exists(file));
+        assertEquals(store.getKeyIds().size(), 1);
+    }
+
+    @Test
+    public void constructorShouldReuseSigningKeyWhenFileExists() {
+        String keyId = newStore(SignatureAlgorithm.RS256).currentSigningKey().getKeyID();
+
+        JwkKeyStore reloaded = newStore(SignatureAlgorithm.RS256);
+
+        assertEquals(reloaded.currentSigningKey().getKeyID(), keyId);
+    }
+
+    @Test
+    public void tokenShouldVerifyAfterRestartAndRotation() {
+        JwkKeyStore store = newStore(SignatureAlgorithm.RS256);
+        String token = encode(store);
+
+        JwkKeyStore reloaded = newStore(SignatureAlgorithm.RS256);
+        reloaded.rotate();
+
+        assertEquals(decoder(reloaded).decode(token).getSubject(), "maria@gmail.com");
+    }
+
+    @Test
+    public void currentSigningKeyShouldRotateWhenKeyIsDue() {
+        JwkKeyStore store = newStore(SignatureAlgorithm.RS256);
+        String keyId = store.currentSigningKey().getKeyID();
+
+        clock.advance(Duration.ofDays(31));
+
+        assertNotEquals(store.currentSigningKey().getKeyID(), keyId);
+        assertTrue(store.getKeyIds().contains(keyId));
+    }
+
+    @Test
+    public void rotateShouldDropKeysBeyondRetiredCount() {
+        JwkKeyStore store = newStore(SignatureAlgorithm.RS256);
+        String firstKeyId = store.currentSigningKey().getKeyID();
+        for (int i = 0; i < 3; i++) {
+            clock.advance(Duration.ofMinutes(1));
+            store.rotate();
+        }
+
+        assertEquals(store.getKeyIds().size(), 3);
+        assertFalse(store.getKeyIds().contains(firstKeyId));
+    }
+
+    @Test
+    public void es256StoreShouldSignAndVerifyTokens() {
+        JwkKeyStore store = newStore(SignatureAlgorithm.ES256);
+        String token = encode(store);
+
+        Jwt jwt = decoder(store).decode(token);
+
+        assertEquals(jwt.getHeaders().get("alg").toString(), "ES256");
+    }
+
+    @Test
+    public void verificationShouldReloadFileWhenKeyIdIsUnknown() {
+        JwkKeyStore verifier = newStore(SignatureAlgorithm.RS256);
+        JwkKeyStore signer = newStore(SignatureAlgorithm.RS256);
+        clock.advance(Duration.ofMinutes(1));
+        signer.rotate();
+
+        String token = encode(signer);
+
+        assertEquals(decoder(verifier).decode(token).getSubject(), "maria@gmail.com");
+    }
+
+    @Test
+    public void rotateShouldKeepKeysRotatedInByAnotherInstanceSharingTheFile() {
+        JwkKeyStore first = newStore(SignatureAlgorithm.RS256);
+        JwkKeyStore second = newStore(SignatureAlgorithm.RS256);
+        clock.advance(Duration.ofMinutes(1));
+        first.rotate();
+        String token = encode(first);
+        clock.advance(Duration.ofMinutes(1));
+
+        second.rotate();
+
+        JwkKeyStore third = newStore(SignatureAlgorithm.RS256);
+        assertTrue(third.getKeyIds().contains(first.currentSigningKey().getKeyID()));
+        assertTrue(third.getKeyIds().contains(second.currentSigningKey().getKeyID()));
+        assertEquals(decoder(second).decode(token).getSubject(), "maria@gmail.com");
+    }
+
+    @Test
+    public void currentSigningKeyShouldAdoptKeyRotatedInByAnotherInstanceSharingTheFile() {
+        JwkKeyStore first = newStore(SignatureAlgorithm.RS256);
+        JwkKeyStore second = newStore(SignatureAlgorithm.RS256);
+        clock.advance(Duration.ofDays(31));
+
+        String keyId = first.currentSigningKey().getKeyID();
+
+        assertEquals(second.currentSigningKey().getKeyID(), keyId);
+        assertEquals(newStore(SignatureAlgorithm.RS256).getKeyIds().size(), 2);
+    }
+
+    private JwkKeyStore newStore(SignatureAlgorithm algorithm) {
+        return new JwkKeyStore(file, algorithm, Duration.ofDays(30), 2, clock);
+    }
+
+    private String encode(JwkKeyStore store) {
+        JwsHeader header = JwsHeader.with(store.getAlgorithm()).keyId(store.currentSigningKey().getKeyID()).build();
+        JwtClaimsSet claims = JwtClaimsSet.builder().subject("maria@gmail.com")
+                .issuedAt(clock.instant()).expiresAt(clock.instant().plusSeconds(60)).build();
+        return new NimbusJwtEncoder(store.signingKeySource()).encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    private JwtDecoder decoder(JwkKeyStore store) {
+        NimbusJwtDecoder decoder = (NimbusJwtDecoder) OAuth2AuthorizationServerConfiguration.jwtDecoder(store.verificationKeySource());
+        // tokens carry the test clock's timestamps
+        decoder.setJwtValidator(token -> OAuth2TokenValidatorResult.success());
+        return decoder;
+    }
+}
@@ -0,0 +1,137 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Both pools open the same in-memory database; each tags its sessions with a variable so
+ * a query can tell which pool the transaction's connection came from.
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:routingdb",
+        "spring.datasource.hikari.connection-init-sql=SET @POOL = 'primary'",
+        "datasource.replica.url=jdbc:h2:mem:routingdb",
+        "datasource.replica.hikari.connection-init-sql=SET @POOL = 'replica'"})
+public class ReadReplicaConfigTests {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    public void readOnlyTransactionShouldUseReplicaPool() {
+        transaction.setReadOnly(true);
+
+        assertEquals("replica", transaction.execute(status -> pool()));
+    }
+
+    @Test
+    public void readWriteTransactionShouldUsePrimaryPool() {
+        assertEquals("primary", transaction.execute(status -> pool()));
+    }
+
+    @Test
+    public void readOnlyTransactionShouldNotPutEntitiesInSecondLevelCache() {
+        entityManagerFactory.getCache().evict(Product.class);
+        transaction.setReadOnly(true);
+
+        transaction.execute(status -> entityManager.find(Product.class, 1L));
+
+        assertFalse(entityManagerFactory.getCache().contains(Product.class, 1L));
+    }
+
+    @Test
+    public void readWriteTransactionShouldPutEntitiesInSecondLevelCache() {
+        entityManagerFactory.getCache().evict(Product.class);
+
+        transaction.execute(status -> entityManager.find(Product.class, 1L));
+
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, 1L));
+    }
+
+    @Test
+    public void readOnlyTransactionShouldKeepRouteChosenAtBeginWhenReplicaRecovers() {
+        entityManagerFactory.getCache().evict(Product.class);
+        doReturn(false).when(replicaLagMonitor).isUsable();
+        transaction.setReadOnly(true);
+
+        Object pool = transaction.execute(status -> {
+            // the replica catches up between begin and the first statement
+            doReturn(true).when(replicaLagMonitor).isUsable();
+            entityManager.find(Product.class, 1L);
+            return pool();
+        });
+
+        assertEquals(pool, "primary");
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, 1L));
+    }
+
+    @Test
+    public void readOnlyTransactionShouldKeepReplicaRouteAndBypassCacheWhenReplicaStartsLagging() {
+        entityManagerFactory.getCache().evict(Product.class);
+        transaction.setReadOnly(true);
+
+        Object pool = transaction.execute(status -> {
+            doReturn(false).when(replicaLagMonitor).isUsable();
+            entityManager.find(Product.class, 1L);
+            return pool();
+        });
+
+        assertEquals(pool, "replica");
+        assertFalse(entityManagerFactory.getCache().contains(Product.class, 1L));
+    }
+
+    @Test
+    public void categoryListShouldBeReadFromPrimaryPool() {
+        double replicaReads = routed("replica", "read-only");
+        double primaryWrites = routed("primary", "read-write");
+
+        categoryRepository.findAll();
+
+        assertEquals(routed("replica", "read-only"), replicaReads);
+        assertEquals(routed("primary", "read-write"), primaryWrites + 1);
+    }
+
+    private double routed(String route, String transaction) {
+        return meterRegistry.get("datasource.route").tags("route", route, "transaction", transaction).counter().count();
+    }
+
+    private Object pool() {
+        return entityManager.createNativeQuery("SELECT @POOL").getSingleResult();
+    }
+}
@@ -0,0 +1,74 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.config.ReadWriteRoutingDataSource.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReadWriteRoutingDataSourceTests {
+
+    private ReplicaLagMonitor monitor;
+    private SimpleMeterRegistry meterRegistry;
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        monitor = mock(ReplicaLagMonitor.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class), monitor,
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadWriteRoutingDataSource.unbindRoute();
+    }
+
+    @Test
+    public void determineCurrentLookupKeyShouldReturnPrimaryOutsideReadOnlyTransactions() {
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1.0, count("primary", "read-write"));
+    }
+
+    @Test
+    public void determineCurrentLookupKeyShouldReturnReplicaForReadOnlyTransactions() {
+        when(monitor.isUsable()).thenReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(Route.REPLICA, dataSource.determineCurrentLookupKey());
+        assertEquals(1.0, count("replica", "read-only"));
+    }
+
+    @Test
+    public void determineCurrentLookupKeyShouldFallBackToPrimaryWhenReplicaIsNotUsable() {
+        when(monitor.isUsable()).thenReturn(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1.0, count("primary", "read-only"));
+        assertEquals(0.0, count("replica", "read-only"));
+    }
+
+    @Test
+    public void determineCurrentLookupKeyShouldUseBoundRouteInsteadOfMonitor() {
+        when(monitor.isUsable()).thenReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.bindRoute(Route.PRIMARY);
+
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1.0, count("primary", "read-only"));
+        verify(monitor, never()).isUsable();
+    }
+
+    private double count(String route, String transaction) {
+        return meterRegistry.get("datasource.route").tags("route", route, "transaction", transaction).counter().count();
+    }
+}
@@ -0,0 +1,57 @@
+package com.devsuperior.dscommerce.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicaLagMonitorTests {
+
+    private JdbcDataSource replica;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        replica = new JdbcDataSource();
+        replica.setURL("jdbc:h2:mem:replica-lag");
+        replica.setUser("sa");
+    }
+
+    @Test
+    public void constructorShouldThrowIllegalArgumentExceptionWhenLagQueryIsEmpty() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new ReplicaLagMonitor(replica, "", Duration.ofSeconds(5));
+        });
+    }
+
+    @Test
+    public void checkShouldKeepReplicaUsableWhenLagIsWithinMaximum() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT 1200", Duration.ofSeconds(5));
+
+        monitor.check();
+
+        assertTrue(monitor.isUsable());
+        assertEquals(1200, monitor.getLagMillis());
+    }
+
+    @Test
+    public void checkShouldMarkReplicaUnusableWhenLagExceedsMaximum() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT 12000", Duration.ofSeconds(5));
+
+        monitor.check();
+
+        assertFalse(monitor.isUsable());
+        assertEquals(12000, monitor.getLagMillis());
+    }
+
+    @Test
+    public void checkShouldMarkReplicaUnusableWhenLagQueryFails() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT lag FROM missing_table", Duration.ofSeconds(5));
+
+        monitor.check();
+
+        assertFalse(monitor.isUsable());
+    }
+}
@@ -0,0 +1,59 @@
+package com.devsuperior.dscommerce.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlStatisticsListenerTests {
+
+    private SqlStatisticsListener listener;
+    private SqlStatistics statistics;
+    private List<QueryInfo> queries;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        listener = new SqlStatisticsListener(Duration.ZERO, false, 0.0);
+        statistics = SqlStatistics.start();
+        queries = List.of(new QueryInfo("SELECT 1"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SqlStatistics.stop();
+    }
+
+    @Test
+    public void afterQueryShouldMeasureSubMillisecondStatements() {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(0);
+
+        listener.beforeQuery(execution, queries);
+        LockSupport.parkNanos(100_000);
+        listener.afterQuery(execution, queries);
+
+        assertEquals(statistics.getStatements(), 1L);
+        assertTrue(statistics.getElapsedNanos() >= 100_000);
+    }
+
+    @Test
+    public void afterQueryShouldCountEachRowOfBatch() {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setBatch(true);
+        execution.setBatchSize(3);
+        execution.setResult(new int[] {1, 1, 1});
+
+        listener.beforeQuery(execution, queries);
+        listener.afterQuery(execution, queries);
+
+        assertEquals(statistics.getStatements(), 3L);
+        assertEquals(statistics.getRows(), 3L);
+    }
+}
@@ -0,0 +1,137 @@
+package com.devsuperior.dscommerce.controllers;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.devsuperior.dscommerce.controllers.handlers.SqlStatisticsHeaderAdvice;
+import com.devsuperior.dscommerce.services.CategoryService;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Per-endpoint SQL statement counts, read from the X-SQL-Statements header. Every cache
+ * in front of the database (second-level and query caches, Spring caches, the category
+ * JSON) is cleared first, so the counts are those of a cold request and a cache cannot
+ * hide a regression. A change that adds queries to one of these endpoints (an N+1, a lost
+ * fetch join) fails here; update the count only when the change is intended, and when it
+ * drops, lock in the improvement.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class QueryBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        for (String name : cacheManager.getCacheNames()) {
+            cacheManager.getCache(name).clear();
+        }
+        categoryService.invalidateJson();
+    }
+
+    @Test
+    public void findByIdShouldRunExpectedStatements() throws Exception {
+        // product, its categories, and the category list folded into the ETag
+        mockMvc.perform(get("/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(statements(3));
+    }
+
+    @Test
+    public void findByIdWithStaleETagShouldRunExpectedStatements() throws Exception {
+        // version, product, its categories, and the category list, read once for the ETag
+        mockMvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-0-00000000\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"1-")))
+                .andExpect(statements(4));
+    }
+
+    @Test
+    public void findAllShouldRunExpectedStatements() throws Exception {
+        // page and count
+        mockMvc.perform(get("/products").param("name", "").param("size", "12"))
+                .andExpect(status().isOk())
+                .andExpect(statements(2));
+    }
+
+    @Test
+    public void findAllCategoriesShouldRunExpectedStatements() throws Exception {
+        mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+
+    @Test
+    public void findOrderByIdShouldRunExpectedStatements() throws Exception {
+        // order with client, payment, items and products in one fetch join
+        mockMvc.perform(get("/orders/1").with(client("maria@gmail.com", 1L)))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+
+    @Test
+    public void insertOrderShouldRunExpectedStatements() throws Exception {
+        // user, products, order id, order, and one per item (batched, counted per row)
+        mockMvc.perform(post("/orders").with(client("maria@gmail.com", 1L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\": [{\"productId\": 1, \"quantity\": 2}, {\"productId\": 3, \"quantity\": 1}]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.client.name").value("Maria Brown"))
+                .andExpect(statements(6));
+    }
+
+    @Test
+    public void getMeShouldRunExpectedStatements() throws Exception {
+        // user and roles
+        mockMvc.perform(get("/users/me").with(client("maria@gmail.com", 1L)))
+                .andExpect(status().isOk())
+                .andExpect(statements(2));
+    }
+
+    private static ResultMatcher statements(long expected) {
+        return result -> {
+            String header = result.getResponse().getHeader(SqlStatisticsHeaderAdvice.STATEMENTS_HEADER);
+            Assertions.assertNotNull(header, "Missing " + SqlStatisticsHeaderAdvice.STATEMENTS_HEADER + " header");
+            Assertions.assertEquals(expected, Long.parseLong(header), () -> result.getRequest().getMethod() + " "
+                    + result.getRequest().getRequestURI() + " statements");
+        };
+    }
+
+    private static RequestPostProcessor client(String username, Long userId) {
+        return jwt().jwt(token -> token.claim("username", username).claim(CustomUserUtil.USER_ID_CLAIM, userId))
+                .authorities(new SimpleGrantedAuthority("ROLE_CLIENT"));
+    }
+}
@@ -14,20 +14,20 @@ public class UserDetailsFactory {
 
     public static List<UserDetailsProjection> createCustomClientUser(String username) {
         List<UserDetailsProjection> list = new ArrayList<>();
-        list.add(new UserDetailImpl(username, "123", 1L, "ROLE_CLIENT"));
+        list.add(new UserDetailImpl(1L, username, "123", 1L, "ROLE_CLIENT"));
         return list;
     }
 
     public static List<UserDetailsProjection> createCustomAdminUser(String username) {
         List<UserDetailsProjection> list = new ArrayList<>();
-        list.add(new UserDetailImpl(username, "123", 2L, "ROLE_ADMIN"));
+        list.add(new UserDetailImpl(1L, username, "123", 2L, "ROLE_ADMIN"));
         return list;
     }
 
     public static List<UserDetailsProjection> createCustomAdminClientUser(String username) {
         List<UserDetailsProjection> list = new ArrayList<>();
-        list.add(new UserDetailImpl(username, "123", 1L, "ROLE_CLIENT"));
-        list.add(new UserDetailImpl(username, "123", 2L, "ROLE_ADMIN"));
+        list.add(new UserDetailImpl(1L, username, "123", 1L, "ROLE_CLIENT"));
+        list.add(new UserDetailImpl(1L, username, "123", 2L, "ROLE_ADMIN"));
         return list;
     }
 }
@@ -37,11 +37,17 @@ public class UserDetailsFactory {
 @NoArgsConstructor
 @AllArgsConstructor
 class UserDetailImpl implements UserDetailsProjection {
+    private Long userId;
     private String username;
     private String password;
     private Long roleId;
     private String authority;
 
+    @Override
+    public Long getUserId() {
+        return userId;
+    }
+
     @Override
     public String getUsername() {
         return username;
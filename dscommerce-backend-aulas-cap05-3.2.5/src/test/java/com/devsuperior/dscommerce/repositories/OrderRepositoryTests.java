@@ -0,0 +1,95 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.entities.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class OrderRepositoryTests {
+
+    private static final int ITEM_COUNT = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Long largeOrderId;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        User client = entityManager.find(User.class, 1L);
+        Order order = entityManager.persist(new Order(null, Instant.now(), OrderStatus.PAID, client, null));
+        entityManager.persist(new Payment(null, Instant.now(), order));
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Product product = entityManager.persist(new Product(null, "Product " + i, "Description " + i, 10.0 + i, ""));
+            entityManager.persist(new OrderItem(order, product, 1, product.getPrice()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        largeOrderId = order.getId();
+        products = entityManager.getEntityManager()
+                .createQuery("SELECT obj FROM Product obj WHERE obj.name LIKE 'Product %'", Product.class)
+                .getResultList();
+    }
+
+    @Test
+    public void searchWithItemsByIdShouldLoadLargeOrderInSingleStatement() {
+        statistics.clear();
+
+        Order order = orderRepository.searchWithItemsById(largeOrderId).orElseThrow();
+        OrderDTO dto = new OrderDTO(order);
+
+        assertEquals(dto.getItems().size(), ITEM_COUNT);
+        assertNotNull(dto.getClient().getName());
+        assertNotNull(dto.getPayment());
+        assertEquals(statistics.getPrepareStatementCount(), 1L);
+    }
+
+    @Test
+    public void saveShouldBatchItemInsertsOfLargeOrder() {
+        User client = entityManager.find(User.class, 1L);
+        Order order = new Order(null, Instant.now(), OrderStatus.WAITING_PAYMENT, client, null);
+        for (Product product : products) {
+            order.getItems().add(new OrderItem(order, product, 2, product.getPrice()));
+        }
+        statistics.clear();
+
+        orderRepository.save(order);
+        entityManager.flush();
+
+        assertEquals(statistics.getEntityInsertCount(), ITEM_COUNT + 1L);
+        assertTrue(statistics.getPrepareStatementCount() <= 3);
+    }
+
+    @Test
+    public void searchWithItemsByIdShouldReturnOrderWithoutPayment() {
+        Order order = orderRepository.searchWithItemsById(3L).orElseThrow();
+        OrderDTO dto = new OrderDTO(order);
+
+        assertNull(dto.getPayment());
+        assertEquals(dto.getItems().size(), 1);
+    }
+
+    @Test
+    public void searchWithItemsByIdShouldReturnEmptyWhenIdDoesNotExist() {
+        assertTrue(orderRepository.searchWithItemsById(1000L).isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.config.HibernateCacheConfig;
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.HibernateCacheRegions;
+import com.devsuperior.dscommerce.entities.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(HibernateCacheConfig.class)
+public class ProductRepositoryTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private long existingProductId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SessionFactory sessionFactory = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        existingProductId = 1L;
+    }
+
+    @Test
+    public void findByIdShouldHitSecondLevelCacheWhenProductWasLoadedBefore() {
+        productRepository.findById(existingProductId).orElseThrow();
+        newTransaction();
+
+        productRepository.findById(existingProductId).orElseThrow();
+
+        assertEquals(statistics.getDomainDataRegionStatistics(HibernateCacheRegions.PRODUCT).getHitCount(), 1L);
+        assertEquals(statistics.getPrepareStatementCount(), 1L);
+    }
+
+    @Test
+    public void categoriesShouldHitSecondLevelCacheWhenLoadedBefore() {
+        productRepository.findById(existingProductId).orElseThrow().getCategories().size();
+        newTransaction();
+
+        Product product = productRepository.findById(existingProductId).orElseThrow();
+        List<String> names = product.getCategories().stream().map(Category::getName).toList();
+
+        assertFalse(names.isEmpty());
+        assertEquals(statistics.getDomainDataRegionStatistics(HibernateCacheRegions.PRODUCT_CATEGORIES).getHitCount(), 1L);
+        assertEquals(statistics.getPrepareStatementCount(), 2L);
+    }
+
+    @Test
+    public void findByIdShouldReturnUpdatedProductAfterCommittedUpdate() {
+        productRepository.findById(existingProductId).orElseThrow();
+        Product product = productRepository.findById(existingProductId).orElseThrow();
+        product.setName("Updated name");
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        TestTransaction.start();
+        Product result = productRepository.findById(existingProductId).orElseThrow();
+
+        assertEquals(result.getName(), "Updated name");
+        result.setName("The Lord of the Rings");
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+
+    @Test
+    public void categoryFindAllShouldHitQueryCacheWhenCalledTwice() {
+        List<Category> first = categoryRepository.findAll();
+        newTransaction();
+
+        List<Category> second = categoryRepository.findAll();
+
+        assertEquals(second.size(), first.size());
+        assertEquals(statistics.getQueryCacheHitCount(), 1L);
+        assertEquals(statistics.getPrepareStatementCount(), 1L);
+    }
+
+    @Test
+    public void replacingCategoriesShouldOnlyWriteChangedJoinRows() {
+        Product product = productRepository.findById(existingProductId).orElseThrow();
+        product.getCategories().size();
+        entityManager.flush();
+        statistics.clear();
+
+        // same steps as ProductService.copyDtoToEntity: the set diff is left to Hibernate
+        product.getCategories().clear();
+        for (Long categoryId : List.of(1L, 2L)) {
+            Category category = new Category();
+            category.setId(categoryId);
+            product.getCategories().add(category);
+        }
+        entityManager.flush();
+
+        // the version bump plus a single tb_product_category insert
+        assertEquals(statistics.getPrepareStatementCount(), 2L);
+    }
+
+    // READ_WRITE regions only serve entries cached before the reading transaction started
+    private void newTransaction() {
+        TestTransaction.end();
+        TestTransaction.start();
+    }
+}
@@ -3,6 +3,7 @@ package com.devsuperior.dscommerce.services;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.factory.UserFactory;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -21,6 +24,9 @@ public class AuthServiceTests {
     @Mock
     private UserService userService;
 
+    @Mock
+    private CustomUserUtil customUserUtil;
+
     private User adminClient;
     private User selfClient;
     private User otherClient;
@@ -35,29 +41,31 @@ public class AuthServiceTests {
     @Test
     public void validateSelfOrAdminShouldDoNothingWhenAdminLogged () {
 
-        when(userService.authenticated()).thenReturn(adminClient);
+        when(customUserUtil.loggedUserHasRole("ROLE_ADMIN")).thenReturn(true);
 
-        long UserId = adminClient.getId();
+        long UserId = otherClient.getId();
 
         Assertions.assertDoesNotThrow(() -> {
             authService.validateSelfOrAdmin(UserId);
         });
+        verify(userService, never()).authenticated();
     }
 
     @Test
     public void validateSelfOrAdminShouldDoNothingWhenSelfLogged () {
-        when(userService.authenticated()).thenReturn(selfClient);
+        when(customUserUtil.getLoggedUserId()).thenReturn(selfClient.getId());
 
         long UserId = selfClient.getId();
 
         Assertions.assertDoesNotThrow(() -> {
             authService.validateSelfOrAdmin(UserId);
         });
+        verify(userService, never()).authenticated();
     }
 
     @Test
     public void validateSelfOrAdminShouldThrowForbiddenExceptionWhenOtherClientLogged() {
-        when(userService.authenticated()).thenReturn(selfClient);
+        when(customUserUtil.getLoggedUserId()).thenReturn(selfClient.getId());
 
         long UserId = otherClient.getId();
 
@@ -65,4 +73,16 @@ public class AuthServiceTests {
            authService.validateSelfOrAdmin(UserId);
        });
     }
+
+    @Test
+    public void validateSelfOrAdminShouldFallBackToDatabaseWhenUserIdClaimMissing() {
+        when(customUserUtil.getLoggedUserId()).thenReturn(null);
+        when(userService.authenticated()).thenReturn(selfClient);
+
+        long UserId = selfClient.getId();
+
+        Assertions.assertDoesNotThrow(() -> {
+            authService.validateSelfOrAdmin(UserId);
+        });
+    }
 }
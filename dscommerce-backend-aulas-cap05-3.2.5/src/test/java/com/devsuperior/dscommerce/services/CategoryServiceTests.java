@@ -1,11 +1,13 @@
 package com.devsuperior.dscommerce.services;
 
 
-import com.devsuperior.dscommerce.dto.CategoryDTO;
 import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.CategoryChangedEvent;
 import com.devsuperior.dscommerce.factory.CategoryFactory;
 import com.devsuperior.dscommerce.factory.ProductFactory;
 import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,9 +16,12 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,11 +36,13 @@ public class CategoryServiceTests {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private long existingId;
     private long nonExistingId;
     private List<Category> listCategories;
     private Category category;
-    private List<CategoryDTO> listCategoryDTO;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -45,21 +52,74 @@ public class CategoryServiceTests {
         category = CategoryFactory.createCategory();
         listCategories = new ArrayList<>();
         listCategories.add(category);
+        ReflectionTestUtils.setField(categoryService, "jsonTtlSeconds", 60L);
 
         // repository
         when(categoryRepository.findAll()).thenReturn(listCategories);
     }
 
     @Test
-    public void findAllShouldReturnListCategoryDTO() {
-        listCategoryDTO = categoryService.findAll();
+    public void findAllJsonShouldReturnListCategoryDTO() throws Exception {
+        JsonNode list = objectMapper.readTree(categoryService.findAllJson().getJson());
 
-        Assertions.assertEquals(listCategoryDTO.size(), 1);
-        Assertions.assertNotNull(listCategoryDTO);
-        Assertions.assertEquals(listCategoryDTO.get(0).getId(), category.getId());
-        Assertions.assertEquals(listCategoryDTO.get(0).getName(), category.getName());
+        Assertions.assertEquals(list.size(), 1);
+        Assertions.assertEquals(list.get(0).get("id").asLong(), category.getId());
+        Assertions.assertEquals(list.get(0).get("name").asText(), category.getName());
 
         verify(categoryRepository, times(1)).findAll();
     }
 
+    @Test
+    public void findAllJsonShouldSerializeCategoriesOnceWhenCalledRepeatedly() {
+        CategoryListJson first = categoryService.findAllJson();
+        CategoryListJson second = categoryService.findAllJson();
+
+        Assertions.assertSame(second, first);
+        Assertions.assertEquals(new String(first.getJson(), StandardCharsets.UTF_8),
+                "[{\"id\":" + category.getId() + ",\"name\":\"" + category.getName() + "\"}]");
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void findAllJsonShouldRebuildWithNewETagWhenInvalidatedAfterChange() {
+        CategoryListJson first = categoryService.findAllJson();
+
+        listCategories.add(new Category(2L, "Books"));
+        categoryService.invalidateJson();
+        CategoryListJson second = categoryService.findAllJson();
+
+        Assertions.assertNotEquals(second.getETag(), first.getETag());
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void findAllJsonShouldRebuildWhenTtlHasPassed() {
+        ReflectionTestUtils.setField(categoryService, "jsonTtlSeconds", 0L);
+
+        categoryService.findAllJson();
+        categoryService.findAllJson();
+
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void findAllJsonShouldRebuildWhenCategoryChangedEventIsPublished() {
+        categoryService.findAllJson();
+
+        categoryService.onCategoryChanged(new CategoryChangedEvent(existingId));
+        categoryService.findAllJson();
+
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void findAllJsonShouldKeepETagWhenContentIsUnchanged() {
+        CategoryListJson first = categoryService.findAllJson();
+
+        categoryService.invalidateJson();
+        CategoryListJson second = categoryService.findAllJson();
+
+        Assertions.assertNotSame(second, first);
+        Assertions.assertEquals(second.getETag(), first.getETag());
+    }
 }
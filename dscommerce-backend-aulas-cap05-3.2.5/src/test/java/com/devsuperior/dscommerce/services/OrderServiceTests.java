@@ -1,28 +1,38 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.dto.OrderBatchResultDTO;
 import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderItemDTO;
 import com.devsuperior.dscommerce.entities.*;
 import com.devsuperior.dscommerce.factory.OrderFactory;
 import com.devsuperior.dscommerce.factory.ProductFactory;
 import com.devsuperior.dscommerce.factory.UserFactory;
-import com.devsuperior.dscommerce.repositories.OrderItemRepository;
 import com.devsuperior.dscommerce.repositories.OrderRepository;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.BatchTooLargeException;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
-import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -39,15 +49,18 @@ public class OrderServiceTests {
     @Mock
     private ProductRepository productRepository;
 
-    @Mock
-    private OrderItemRepository orderItemRepository;
-
     @Mock
     private UserService userService;
 
     @Mock
     private AuthService authService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     private Order order;
     private OrderDTO orderDTO;
     private Product product;
@@ -79,16 +92,16 @@ public class OrderServiceTests {
 
         product = ProductFactory.createProduct();
 
-        when(orderRepository.findById(existingOrderId)).thenReturn(Optional.of(order));
-        when(orderRepository.findById(nonExistingOrderId)).thenReturn(Optional.empty());
-
-        when(productRepository.getReferenceById(existingProductId)).thenReturn(product);
-        when(productRepository.getReferenceById(nonExistingProductId)).thenThrow(EntityNotFoundException.class);
+        when(orderRepository.searchWithItemsById(existingOrderId)).thenReturn(Optional.of(order));
+        when(orderRepository.searchWithItemsById(nonExistingOrderId)).thenReturn(Optional.empty());
 
 
         when(orderRepository.save(any())).thenReturn(order);
+        when(orderRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
 
-        when(orderItemRepository.saveAll(any())).thenReturn(new ArrayList<>(order.getItems()));
+        ReflectionTestUtils.setField(orderService, "maxBatchSize", 3);
     }
 
     @Test
@@ -147,6 +160,8 @@ public class OrderServiceTests {
         OrderDTO result = orderService.insert(orderDTO);
         Assertions.assertNotNull(result);
         assertEquals(result.getClient().getId(), selfClient.getId());
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository, never()).getReferenceById(any());
     }
 
     @Test
@@ -163,16 +178,107 @@ public class OrderServiceTests {
     }
 
     @Test
-    public void insertShouldThrowsEntityNotFoundExceptionWhenProductIdDoesNotExists() {
+    public void insertShouldThrowsResourceNotFoundExceptionWhenProductIdDoesNotExists() {
         when(userService.authenticated()).thenReturn(selfClient);
 
-        product.setId(nonExistingOrderId);
-        OrderItem orderItem = new OrderItem(order, product, 2,10.0);
+        Product unknownProduct = ProductFactory.createProduct();
+        unknownProduct.setId(nonExistingProductId);
+        OrderItem orderItem = new OrderItem(order, unknownProduct, 2,10.0);
         order.getItems().add(orderItem);
         orderDTO = new OrderDTO(order);
 
-        Assertions.assertThrows(EntityNotFoundException.class, () -> {
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
             orderService.insert(orderDTO);
         });
     }
+
+    @Test
+    public void insertAllShouldReportCreatedAndFailedOrdersWhenSomeAreInvalid() {
+        when(userService.authenticated()).thenReturn(selfClient);
+
+        OrderDTO emptyOrder = new OrderDTO(null, null, null, null, null);
+        OrderDTO unknownProductOrder = new OrderDTO(null, null, null, null, null);
+        unknownProductOrder.getItems().add(new OrderItemDTO(nonExistingProductId, "Ghost", 10.0, 1, ""));
+
+        List<OrderBatchResultDTO> result = orderService.insertAll(List.of(orderDTO, emptyOrder, unknownProductOrder));
+
+        assertEquals(result.size(), 3);
+        assertEquals(result.get(0).getStatus(), OrderBatchResultDTO.CREATED);
+        assertEquals(result.get(0).getOrder().getClient().getId(), selfClient.getId());
+        assertEquals(result.get(1).getStatus(), OrderBatchResultDTO.FAILED);
+        assertEquals(result.get(2).getStatus(), OrderBatchResultDTO.FAILED);
+        assertEquals(result.get(2).getIndex(), 2);
+    }
+
+    @Test
+    public void insertAllShouldThrowBatchTooLargeExceptionWhenBatchExceedsMaxSize() {
+        Assertions.assertThrows(BatchTooLargeException.class, () -> {
+            orderService.insertAll(List.of(orderDTO, orderDTO, orderDTO, orderDTO));
+        });
+        verify(orderRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void insertAllShouldFailOrderWithNullProductIdWithoutLookingItUp() {
+        when(userService.authenticated()).thenReturn(selfClient);
+
+        OrderDTO nullProductOrder = new OrderDTO(null, null, null, null, null);
+        nullProductOrder.getItems().add(new OrderItemDTO(null, "Ghost", 10.0, 1, ""));
+
+        List<OrderBatchResultDTO> result = orderService.insertAll(List.of(nullProductOrder, orderDTO));
+
+        assertEquals(result.get(0).getStatus(), OrderBatchResultDTO.FAILED);
+        assertEquals(result.get(1).getStatus(), OrderBatchResultDTO.CREATED);
+        verify(productRepository, times(1)).findAllById(Set.of(existingProductId));
+    }
+
+    @Test
+    public void insertAllShouldFailOrderWithNonPositiveQuantity() {
+        when(userService.authenticated()).thenReturn(selfClient);
+
+        OrderDTO zeroQuantityOrder = new OrderDTO(null, null, null, null, null);
+        zeroQuantityOrder.getItems().add(new OrderItemDTO(existingProductId, "Phone", 10.0, 0, ""));
+
+        List<OrderBatchResultDTO> result = orderService.insertAll(List.of(zeroQuantityOrder));
+
+        assertEquals(result.get(0).getStatus(), OrderBatchResultDTO.FAILED);
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    public void insertAllShouldRetryOrdersOneByOneWhenBatchTransactionFails() {
+        when(userService.authenticated()).thenReturn(selfClient);
+        when(orderRepository.saveAll(any())).thenThrow(DataIntegrityViolationException.class);
+        when(orderRepository.save(any())).thenReturn(order).thenThrow(DataIntegrityViolationException.class);
+
+        List<OrderBatchResultDTO> result = orderService.insertAll(List.of(orderDTO, orderDTO));
+
+        assertEquals(result.get(0).getStatus(), OrderBatchResultDTO.CREATED);
+        assertEquals(result.get(1).getStatus(), OrderBatchResultDTO.FAILED);
+        verify(orderRepository, times(2)).save(any());
+    }
+
+    @Test
+    public void insertAllShouldLookUpProductsInWriteTransaction() {
+        when(userService.authenticated()).thenReturn(selfClient);
+
+        orderService.insertAll(List.of(orderDTO));
+
+        InOrder inOrder = inOrder(transactionManager, productRepository);
+        inOrder.verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        inOrder.verify(productRepository).findAllById(any());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void insertAllShouldResolveUserAndProductsOnce() {
+        when(userService.authenticated()).thenReturn(selfClient);
+
+        List<OrderBatchResultDTO> result = orderService.insertAll(List.of(orderDTO, orderDTO, orderDTO));
+
+        Assertions.assertTrue(result.stream().allMatch(x -> x.getStatus().equals(OrderBatchResultDTO.CREATED)));
+        verify(userService, times(1)).authenticated();
+        verify(productRepository, times(1)).findAllById(any());
+        verify(orderRepository, times(1)).saveAll(any());
+    }
 }
@@ -1,5 +1,7 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.ProductCursorPageDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.entities.Category;
@@ -8,8 +10,11 @@ import com.devsuperior.dscommerce.factory.CategoryFactory;
 import com.devsuperior.dscommerce.factory.ProductFactory;
 import com.devsuperior.dscommerce.repositories.CategoryRepository;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
 import com.devsuperior.dscommerce.services.exceptions.DatabaseException;
+import com.devsuperior.dscommerce.services.exceptions.InvalidCursorException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscommerce.services.search.ProductSearchIndex;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,9 +29,11 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -43,13 +50,19 @@ public class ProductServiceTests {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private CategoryService categoryService;
+
     private long existingId;
     private long nonExistingId;
     private long dependentId;
     private Product product;
     private ProductDTO productDTO;
     private Category category;
-    private PageImpl<Product> page;
+    private PageImpl<ProductMinDTO> page;
     private String productName;
 
 
@@ -61,7 +74,7 @@ public class ProductServiceTests {
         category = CategoryFactory.createCategory();
         product = ProductFactory.createProduct();
         productDTO = ProductFactory.createProductDTO();
-        page = new PageImpl<>(List.of(product));
+        page = new PageImpl<>(List.of(new ProductMinDTO(product)));
         productName = "Phone";
 
         // findById
@@ -69,8 +82,18 @@ public class ProductServiceTests {
         when(productRepository.findById(existingId)).thenReturn(Optional.of(product));
         when(productRepository.findById(nonExistingId)).thenReturn(Optional.empty());
 
+        // findVersionById
+        when(productRepository.findVersionById(existingId)).thenReturn(Optional.of(3L));
+        when(productRepository.findVersionById(nonExistingId)).thenReturn(Optional.empty());
+        when(categoryService.findAllJson()).thenReturn(new CategoryListJson("[]".getBytes()));
+
         // findAll
         when(productRepository.searchByName(any(),(Pageable)any())).thenReturn(page);
+        when(searchIndex.candidates("phone")).thenReturn(Optional.of(Set.of(existingId)));
+        when(searchIndex.candidates("tablet")).thenReturn(Optional.of(Set.of()));
+        when(searchIndex.candidates("ph")).thenReturn(Optional.empty());
+        when(productRepository.searchByIdsAndText(any(), any(), (Pageable)any())).thenReturn(page);
+        when(productRepository.searchByText(any(), (Pageable)any())).thenReturn(page);
 
         // insert / update
         when(productRepository.save(ArgumentMatchers.any())).thenReturn(product);
@@ -83,6 +106,7 @@ public class ProductServiceTests {
         doThrow(DataIntegrityViolationException.class).when(productRepository).deleteById(dependentId);
 
         // update
+        when(productRepository.saveAndFlush(ArgumentMatchers.any())).thenAnswer(invocation -> invocation.getArgument(0));
         when(productRepository.getReferenceById(existingId)).thenReturn(product);
         when(productRepository.getReferenceById(nonExistingId)).thenThrow(EntityNotFoundException.class);
     }
@@ -96,6 +120,41 @@ public class ProductServiceTests {
         verify(productRepository, times(1)).findById(existingId);
     }
 
+    @Test
+    public void findVersionByIdShouldUseVersionOnlyLookupWhenIdExists() {
+        Long result = productService.findVersionById(existingId);
+
+        assertEquals(result, 3L);
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void findVersionByIdShouldThrowResourceNotFoundExceptionWhenIdDoesNotExists() {
+        assertThrows(ResourceNotFoundException.class, () -> {
+            productService.findVersionById(nonExistingId);
+        });
+    }
+
+    @Test
+    public void eTagShouldHoldIdVersionAndCategoryListHash() {
+        CategoryListJson categories = new CategoryListJson("[]".getBytes());
+
+        String result = productService.eTag(existingId, 3L);
+
+        assertEquals(result, "\"1-3-" + categories.getShortHash() + "\"");
+        assertTrue(categories.getETag().startsWith("\"" + categories.getShortHash()));
+    }
+
+    @Test
+    public void eTagShouldChangeWhenCategoriesChange() {
+        String before = productService.eTag(existingId, 3L);
+        when(categoryService.findAllJson()).thenReturn(new CategoryListJson("[{\"id\":1}]".getBytes()));
+
+        String after = productService.eTag(existingId, 3L);
+
+        assertNotEquals(after, before);
+    }
+
     @Test
     public void findByIdShouldThrowResourceNotFoundExceptionWhenIdDoesNotExists() {
         assertThrows(ResourceNotFoundException.class, () -> {
@@ -113,6 +172,69 @@ public class ProductServiceTests {
         assertNotNull(result);
         assertEquals(result.getSize(), 1);
         assertEquals(result.iterator().next().getName(), productName);
+        verify(productRepository, times(1)).searchByIdsAndText(Set.of(existingId), "phone", pageable);
+    }
+
+    @Test
+    public void findAllShouldMatchInDatabaseWhenIndexCannotNarrow() {
+        Pageable pageable = PageRequest.of(0, 12);
+        Page<ProductMinDTO> result = productService.findAll("PH", pageable);
+
+        assertEquals(result.getSize(), 1);
+        verify(productRepository, times(1)).searchByText("ph", pageable);
+        verify(productRepository, never()).searchByIdsAndText(any(), any(), any());
+    }
+
+    @Test
+    public void findAllShouldReturnEmptyPageWhenIndexHasNoMatch() {
+        Pageable pageable = PageRequest.of(0, 12);
+        Page<ProductMinDTO> result = productService.findAll("Tablet", pageable);
+
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).searchByIdsAndText(any(), any(), any());
+        verify(productRepository, never()).searchByText(any(), any());
+    }
+
+    @Test
+    public void findAllShouldNotQueryIndexWhenNameIsBlank() {
+        Pageable pageable = PageRequest.of(0, 12);
+        Page<ProductMinDTO> result = productService.findAll("", pageable);
+
+        assertEquals(result.getSize(), 1);
+        verify(searchIndex, never()).candidates(any());
+        verify(productRepository, times(1)).searchByName("", pageable);
+    }
+
+    @Test
+    public void findAllAfterShouldReturnNextCursorWhenMoreRowsExist() {
+        ProductMinDTO other = new ProductMinDTO(5L, "Phone X", 900.0, "");
+        when(productRepository.searchAfterId(0L, PageRequest.of(0, 2))).thenReturn(List.of(new ProductMinDTO(product), other));
+
+        ProductCursorPageDTO result = productService.findAllAfter("", "", "id", 1);
+
+        assertEquals(result.getSize(), 1);
+        assertTrue(result.getHasNext());
+        assertEquals(ProductCursor.decode(result.getNextCursor()).getId(), product.getId());
+    }
+
+    @Test
+    public void findAllAfterShouldContinueFromCursorOrderedByName() {
+        String after = new ProductCursor("name", existingId, productName).encode();
+        when(productRepository.searchByIdsAndTextAfterName(Set.of(existingId), "phone", productName, existingId, PageRequest.of(0, 13)))
+                .thenReturn(List.of(new ProductMinDTO(product)));
+
+        ProductCursorPageDTO result = productService.findAllAfter(productName, after, "id", 12);
+
+        assertEquals(result.getSize(), 1);
+        assertFalse(result.getHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void findAllAfterShouldThrowInvalidCursorExceptionWhenCursorIsMalformed() {
+        assertThrows(InvalidCursorException.class, () -> {
+            productService.findAllAfter("", "not-a-cursor", "id", 12);
+        });
     }
 
     @Test
@@ -120,6 +242,7 @@ public class ProductServiceTests {
         ProductDTO result = productService.insert(productDTO);
         assertNotNull(result);
         assertEquals(result.getName(), productDTO.getName());
+        verify(searchIndex, times(1)).index(product);
     }
 
     @Test
@@ -144,6 +267,7 @@ public class ProductServiceTests {
             productService.delete(existingId);
         });
         verify(productRepository, times(1)).deleteById(existingId);
+        verify(searchIndex, times(1)).remove(existingId);
     }
 
     @Test
@@ -161,4 +285,29 @@ public class ProductServiceTests {
             ProductDTO result =  productService.update(nonExistingId, productDTO);
         });
     }
+
+    @Test
+    public void updateShouldThrowConflictExceptionWhenVersionIsStale() {
+        ReflectionTestUtils.setField(product, "version", 2L);
+        ProductDTO stale = new ProductDTO(ProductFactory.createProduct());
+        ReflectionTestUtils.setField(stale, "version", 1L);
+
+        assertThrows(ConflictException.class, () -> {
+            productService.update(existingId, stale);
+        });
+        verify(productRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void updateShouldReplaceCategoriesWithThoseOfTheDto() {
+        Category kept = product.getCategories().iterator().next();
+        Category removed = new Category(5L, "Old");
+        product.getCategories().add(removed);
+        productDTO.getCategories().add(new CategoryDTO(7L, "New"));
+
+        productService.update(existingId, productDTO);
+
+        assertFalse(product.getCategories().contains(removed));
+        assertEquals(product.getCategories().stream().map(Category::getId).sorted().toList(), List.of(kept.getId(), 7L));
+    }
 }
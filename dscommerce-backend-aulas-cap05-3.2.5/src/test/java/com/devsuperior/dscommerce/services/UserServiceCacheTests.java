@@ -0,0 +1,93 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.config.CacheConfig;
+import com.devsuperior.dscommerce.factory.UserDetailsFactory;
+import com.devsuperior.dscommerce.repositories.UserRepository;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(classes = {CacheConfig.class, UserService.class})
+@TestPropertySource(properties = {"cache.default.max-size=100", "cache.default.ttl=300",
+        "security.user-cache.max-size=100", "security.user-cache.ttl=300"})
+public class UserServiceCacheTests {
+
+    @Autowired
+    private UserService userService;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private CustomUserUtil customUserUtil;
+
+    private String existingUserName;
+    private String nonExistingUserName;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        existingUserName = "maria@gmail.com";
+        nonExistingUserName = "user@gmail.com";
+
+        userService.evictAllUserDetails();
+
+        when(userRepository.searchUserAndRolesByEmail(existingUserName))
+                .thenReturn(UserDetailsFactory.createCustomClientUser(existingUserName));
+        when(userRepository.searchUserAndRolesByEmail(nonExistingUserName)).thenReturn(new ArrayList<>());
+    }
+
+    @Test
+    public void loadUserByUsernameShouldQueryOnceWhenCalledRepeatedly() {
+        userService.loadUserByUsername(existingUserName);
+        userService.loadUserByUsername(existingUserName);
+
+        verify(userRepository, times(1)).searchUserAndRolesByEmail(existingUserName);
+    }
+
+    @Test
+    public void loadUserByUsernameShouldQueryAgainAfterEviction() {
+        userService.loadUserByUsername(existingUserName);
+        userService.evictUserDetails(existingUserName);
+        userService.loadUserByUsername(existingUserName);
+
+        verify(userRepository, times(2)).searchUserAndRolesByEmail(existingUserName);
+    }
+
+    @Test
+    public void loadUserByUsernameShouldShareEntryAcrossEmailCase() {
+        userService.loadUserByUsername(existingUserName);
+        userService.loadUserByUsername(existingUserName.toUpperCase());
+
+        verify(userRepository, times(1)).searchUserAndRolesByEmail(anyString());
+    }
+
+    @Test
+    public void evictUserDetailsShouldEvictEntryLoadedWithDifferentEmailCase() {
+        when(userRepository.searchUserAndRolesByEmail(existingUserName.toUpperCase()))
+                .thenReturn(UserDetailsFactory.createCustomClientUser(existingUserName));
+
+        userService.loadUserByUsername(existingUserName.toUpperCase());
+        userService.evictUserDetails(existingUserName);
+        userService.loadUserByUsername(existingUserName);
+
+        verify(userRepository, times(1)).searchUserAndRolesByEmail(existingUserName);
+    }
+
+    @Test
+    public void loadUserByUsernameShouldNotCacheUnknownUsers() {
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername(nonExistingUserName));
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername(nonExistingUserName));
+
+        verify(userRepository, times(2)).searchUserAndRolesByEmail(nonExistingUserName);
+    }
+}
@@ -60,6 +60,7 @@ public class UserServiceTests {
         when(userRepository.findByEmail(nonExistingUserName)).thenReturn(Optional.empty());
 
         when(customUserUtil.getLoggedUserName()).thenReturn(existingUserName);
+        when(customUserUtil.getLoggedUserId()).thenReturn(null);
 
         when(userServiceSpy.authenticated()).thenReturn(user);
     }
@@ -78,6 +79,20 @@ public class UserServiceTests {
         });
     }
 
+    @Test
+    public void updatePasswordShouldStoreNewHashWhenUserExists() {
+        userService.updatePassword(user, "new-hash");
+        assertEquals(user.getPassword(), "new-hash");
+    }
+
+    @Test
+    public void updatePasswordShouldThrowUsernameNotFoundExceptionWhenUserDoesNotExists() {
+        User unknown = UserFactory.createCustomClientUser(3L, nonExistingUserName);
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+            userService.updatePassword(unknown, "new-hash");
+        });
+    }
+
     @Test
     public void authenticatedShouldReturnUserWhenExistingUserNameExists() {
         User result = userService.authenticated();
@@ -92,6 +107,44 @@ public class UserServiceTests {
         });
     }
 
+    @Test
+    public void loadUserByUsernameShouldCarryUserIdFromProjection() {
+        User result = (User) userService.loadUserByUsername(existingUserName);
+        assertEquals(result.getId(), 1L);
+    }
+
+    @Test
+    public void authenticatedShouldFindByIdWhenUserIdClaimPresent() {
+        when(customUserUtil.getLoggedUserId()).thenReturn(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        clearInvocations(userRepository);
+
+        User result = userService.authenticated();
+
+        assertEquals(result.getId(), 1L);
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    public void authenticatedShouldThrowUsernameNotFoundExceptionWhenUserIdNoLongerExists() {
+        when(customUserUtil.getLoggedUserId()).thenReturn(2L);
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+            userService.authenticated();
+        });
+    }
+
+    @Test
+    public void authenticatedShouldFallBackToEmailWhenUserIdClaimMissing() {
+        when(customUserUtil.getLoggedUserId()).thenReturn(null);
+
+        User result = userService.authenticated();
+
+        assertEquals(result.getId(), 1L);
+        verify(userRepository, never()).findById(any());
+    }
+
     @Test
     public void getMeShouldReturnUserDTWhenUserAuthenticated() {
         userDTO = userServiceSpy.getMe();
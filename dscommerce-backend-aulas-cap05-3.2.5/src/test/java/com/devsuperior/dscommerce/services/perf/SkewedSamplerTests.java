@@ -0,0 +1,59 @@
+package com.devsuperior.dscommerce.services.perf;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SkewedSamplerTests {
+
+    private static final int DRAWS = 100_000;
+
+    @Test
+    public void nextShouldStayWithinSize() {
+        for (double skew : new double[] {0, 0.5, 1, 1.5}) {
+            SkewedSampler sampler = new SkewedSampler(10, skew);
+            Random random = new Random(42);
+            for (int i = 0; i < DRAWS; i++) {
+                long rank = sampler.next(random);
+                Assertions.assertTrue(rank >= 0 && rank < 10);
+            }
+        }
+    }
+
+    @Test
+    public void nextShouldBeRoughlyUniformWhenSkewIsZero() {
+        long[] counts = draw(new SkewedSampler(10, 0), 10);
+
+        for (long count : counts) {
+            Assertions.assertEquals(DRAWS / 10.0, count, DRAWS / 10.0 * 0.1);
+        }
+    }
+
+    @Test
+    public void nextShouldFavourLowRanksWhenSkewed() {
+        long[] counts = draw(new SkewedSampler(1000, 1), 1000);
+
+        long top10 = 0;
+        for (int i = 0; i < 10; i++) {
+            top10 += counts[i];
+        }
+        Assertions.assertTrue(counts[0] > counts[999] * 100);
+        Assertions.assertTrue(top10 > DRAWS / 4);
+    }
+
+    @Test
+    public void constructorShouldRejectInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SkewedSampler(0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SkewedSampler(10, -1));
+    }
+
+    private static long[] draw(SkewedSampler sampler, int size) {
+        Random random = new Random(42);
+        long[] counts = new long[size];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[(int) sampler.next(random)]++;
+        }
+        return counts;
+    }
+}
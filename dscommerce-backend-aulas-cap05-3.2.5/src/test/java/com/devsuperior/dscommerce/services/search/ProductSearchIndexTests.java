@@ -0,0 +1,166 @@
+package com.devsuperior.dscommerce.services.search;
+
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.ProductTextProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ProductSearchIndexTests {
+
+    @InjectMocks
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private Product tv;
+    private Product notebook;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tv = new Product(1L, "Smart TV", "Televisão com resolução 4K", 2190.0, "");
+        notebook = new Product(2L, "Macbook Pro", "Notebook para programação", 1250.0, "");
+
+        when(productRepository.searchTextAfterId(0L, PageRequest.of(0, 1000))).thenReturn(List.of(text(tv), text(notebook)));
+        ReflectionTestUtils.setField(searchIndex, "maxCandidates", 1000);
+
+        searchIndex.rebuild();
+    }
+
+    @Test
+    public void rebuildShouldIndexAllProductsFromRepository() {
+        assertEquals(searchIndex.size(), 2);
+        verify(productRepository, times(1)).searchTextAfterId(0L, PageRequest.of(0, 1000));
+    }
+
+    @Test
+    public void rebuildShouldReadProductsInBatchesAfterLastId() {
+        List<ProductTextProjection> full = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            full.add(text(new Product(id, "Produto " + id, "", 1.0, "")));
+        }
+        when(productRepository.searchTextAfterId(0L, PageRequest.of(0, 1000))).thenReturn(full);
+        when(productRepository.searchTextAfterId(1000L, PageRequest.of(0, 1000)))
+                .thenReturn(List.of(text(new Product(1001L, "Smart TV", "", 1.0, ""))));
+
+        searchIndex.rebuild();
+
+        assertEquals(searchIndex.size(), 1001);
+        assertEquals(searchIndex.candidates("smart"), Optional.of(Set.of(1001L)));
+        verify(productRepository, times(1)).searchTextAfterId(1000L, PageRequest.of(0, 1000));
+    }
+
+    @Test
+    public void candidatesShouldIgnoreCaseAndAccents() {
+        assertEquals(searchIndex.candidates(ProductSearchIndex.fold("TELEVISAO")), Optional.of(Set.of(1L)));
+        assertEquals(searchIndex.candidates(ProductSearchIndex.fold("programação")), Optional.of(Set.of(2L)));
+    }
+
+    @Test
+    public void candidatesShouldHoldEveryTrigramOfTerm() {
+        assertEquals(searchIndex.candidates("book"), Optional.of(Set.of(2L)));
+        assertEquals(searchIndex.candidates("cao"), Optional.of(Set.of(1L, 2L)));
+    }
+
+    @Test
+    public void candidatesShouldNotNarrowTermsShorterThanTrigram() {
+        assertTrue(searchIndex.candidates("ao").isEmpty());
+    }
+
+    @Test
+    public void candidatesShouldNotNarrowWhenMoreProductsMatchThanMaxCandidates() {
+        ReflectionTestUtils.setField(searchIndex, "maxCandidates", 1);
+
+        assertTrue(searchIndex.candidates("cao").isEmpty());
+        assertEquals(searchIndex.candidates("book"), Optional.of(Set.of(2L)));
+    }
+
+    @Test
+    public void candidatesShouldReturnEmptySetWhenNothingMatches() {
+        assertEquals(searchIndex.candidates("phone"), Optional.of(Set.of()));
+    }
+
+    @Test
+    public void indexShouldReplacePreviousTermsWhenProductChanges() {
+        tv.setName("OLED Panel");
+        tv.setDescription("Tela grande");
+        searchIndex.index(tv);
+
+        assertEquals(searchIndex.candidates("smart"), Optional.of(Set.of()));
+        assertEquals(searchIndex.candidates("oled"), Optional.of(Set.of(1L)));
+    }
+
+    @Test
+    public void indexShouldKeepProductUnderUnchangedTrigrams() {
+        tv.setDescription("Televisão 8K");
+        searchIndex.index(tv);
+
+        assertEquals(searchIndex.candidates("smart"), Optional.of(Set.of(1L)));
+        assertEquals(searchIndex.candidates("resolucao"), Optional.of(Set.of()));
+        assertEquals(searchIndex.size(), 2);
+    }
+
+    @Test
+    public void refreshShouldPickUpProductsWrittenElsewhere() {
+        Product phone = new Product(3L, "Smartphone", "Celular", 999.0, "");
+        when(productRepository.searchTextAfterId(0L, PageRequest.of(0, 1000)))
+                .thenReturn(List.of(text(tv), text(notebook), text(phone)));
+
+        searchIndex.refresh();
+
+        assertEquals(searchIndex.candidates("celular"), Optional.of(Set.of(3L)));
+    }
+
+    @Test
+    public void refreshShouldKeepCurrentIndexWhenRebuildFails() {
+        when(productRepository.searchTextAfterId(0L, PageRequest.of(0, 1000)))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        searchIndex.refresh();
+
+        assertEquals(searchIndex.candidates("macbook"), Optional.of(Set.of(2L)));
+    }
+
+    @Test
+    public void removeShouldDropProductFromResults() {
+        searchIndex.remove(2L);
+
+        assertEquals(searchIndex.candidates("macbook"), Optional.of(Set.of()));
+        assertEquals(searchIndex.size(), 1);
+    }
+
+    private static ProductTextProjection text(Product product) {
+        return new ProductTextProjection() {
+            @Override
+            public Long getId() {
+                return product.getId();
+            }
+
+            @Override
+            public String getName() {
+                return product.getName();
+            }
+
+            @Override
+            public String getDescription() {
+                return product.getDescription();
+            }
+        };
+    }
+}